@@ -0,0 +1,265 @@
+package org.pemacy.solace;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A writer that queues output on a bounded lock-free ring buffer and prints it to a delegate from a single
+ * dedicated thread, so that any number of producer threads can write without contending on the delegate.
+ * <p>
+ * When the buffer is full the {@link OverflowPolicy} decides what happens: {@code BLOCK} waits for space,
+ * {@code DROP_OLDEST} evicts the oldest queued write, {@code DROP_NEWEST} discards the new write and
+ * {@code SAMPLE} keeps every n-th overflowing write in place of the oldest and discards the rest.
+ * <p>
+ * If the delegate throws, the batch being printed is lost and the exception is passed to the drainer
+ * thread's uncaught exception handler, but the drainer keeps going.
+ */
+public class AsyncWriter<Self> implements Writer<Self>, AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+    public static final int DEFAULT_SAMPLE_RATE = 16;
+
+    private static final int MAX_DRAIN_CHARS = 1 << 16;
+    private static final long BLOCK_PARK_NANOS = 50_000;
+    private static final long IDLE_PARK_NANOS = 10_000_000;
+
+    private final Writer<Self> delegate;
+    private final BoundedRingQueue<Object> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final Thread drainer;
+    private final StringBuilder batch = new StringBuilder();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder droppedOldest = new LongAdder();
+    private final LongAdder droppedNewest = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicInteger writers = new AtomicInteger();
+
+    private volatile boolean draining;
+    private volatile boolean closed;
+
+    private AsyncWriter(final Writer<Self> delegate, final int capacity, final OverflowPolicy overflowPolicy,
+                        final int sampleRate) {
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("sampleRate must be positive: " + sampleRate);
+        }
+        this.delegate = delegate;
+        this.queue = new BoundedRingQueue<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = sampleRate;
+        this.drainer = new Thread(this::drain, "solace-async-writer");
+        drainer.setDaemon(true);
+    }
+
+    public static <Self> AsyncWriter<Self> start(final Writer<Self> delegate) {
+        return start(delegate, DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    public static <Self> AsyncWriter<Self> start(final Writer<Self> delegate, final int capacity,
+                                                 final OverflowPolicy overflowPolicy) {
+        return start(delegate, capacity, overflowPolicy, DEFAULT_SAMPLE_RATE);
+    }
+
+    /**
+     * Creates a writer and starts its draining thread, which only runs once the writer is fully constructed.
+     */
+    public static <Self> AsyncWriter<Self> start(final Writer<Self> delegate, final int capacity,
+                                                 final OverflowPolicy overflowPolicy, final int sampleRate) {
+        final var writer = new AsyncWriter<>(delegate, capacity, overflowPolicy, sampleRate);
+        writer.drainer.start();
+        return writer;
+    }
+
+    @Override
+    public Writer<Self> print(final Object content) {
+        return enqueue(String.valueOf(content));
+    }
+
+    @Override
+    public Writer<Self> print(final Style style, final Object content) {
+        return enqueue(style.pack() == 0 ? String.valueOf(content) : new StyledText(style, String.valueOf(content)));
+    }
+
+    /**
+     * Queues a copy of the characters, since callers such as the primitive overloads reuse the buffer.
+     */
+    @Override
+    public Writer<Self> print(final char[] buffer, final int offset, final int length) {
+        return enqueue(new String(buffer, offset, length));
+    }
+
+    @Override
+    public Writer<Self> print(final Style style, final char[] buffer, final int offset, final int length) {
+        return print(style, new String(buffer, offset, length));
+    }
+
+    /**
+     * Stops accepting writes and waits for everything queued so far, including writes that were in
+     * progress when the writer was closed, to reach the delegate. If the calling thread is interrupted
+     * while waiting, it returns early with its interrupt status set. Called from the delegate on the
+     * draining thread, it returns right away and the rest of the queue is printed after that.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(drainer);
+        if (Thread.currentThread() == drainer) {
+            return;
+        }
+        try {
+            drainer.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public int getCapacity() {
+        return queue.capacity();
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getBlocked() {
+        return blocked.sum();
+    }
+
+    public long getDroppedOldest() {
+        return droppedOldest.sum();
+    }
+
+    public long getDroppedNewest() {
+        return droppedNewest.sum();
+    }
+
+    public long getOverflows() {
+        return overflows.sum();
+    }
+
+    /**
+     * Returns the number of batches whose printing failed with an exception from the delegate.
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public Self getSelf() {
+        return delegate.getSelf();
+    }
+
+    private Writer<Self> enqueue(final Object text) {
+        // Counted before checking closed, so the drainer does not stop while a write may still be queued
+        writers.incrementAndGet();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Writer is closed");
+            }
+            if (!queue.offer(text)) {
+                overflow(text);
+            } else {
+                accepted.increment();
+            }
+        } finally {
+            writers.decrementAndGet();
+        }
+        // Orders the offer before reading draining, against the opposite order in drain()
+        VarHandle.fullFence();
+        if (!draining) {
+            LockSupport.unpark(drainer);
+        }
+        return this;
+    }
+
+    private void overflow(final Object text) {
+        overflows.increment();
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                blocked.increment();
+                while (!queue.offer(text)) {
+                    LockSupport.unpark(drainer);
+                    LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+                }
+                accepted.increment();
+            }
+            case DROP_OLDEST -> replaceOldest(text);
+            case DROP_NEWEST -> droppedNewest.increment();
+            case SAMPLE -> {
+                if (samples.incrementAndGet() % sampleRate == 0) {
+                    replaceOldest(text);
+                } else {
+                    droppedNewest.increment();
+                }
+            }
+        }
+    }
+
+    private void replaceOldest(final Object text) {
+        while (!queue.offer(text)) {
+            if (queue.poll() != null) {
+                droppedOldest.increment();
+            }
+        }
+        accepted.increment();
+    }
+
+    private void drain() {
+        while (true) {
+            draining = true;
+            var text = queue.poll();
+            if (text == null) {
+                draining = false;
+                VarHandle.fullFence();
+                text = queue.poll();
+                if (text == null) {
+                    if (closed && writers.get() == 0 && queue.isEmpty()) {
+                        return;
+                    }
+                    // Bounded in case a wakeup is missed anyway
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    continue;
+                }
+                draining = true;
+            }
+            batch.setLength(0);
+            try {
+                do {
+                    if (text instanceof StyledText styled) {
+                        // Plain text queued before a styled write goes out first, keeping writes in order
+                        flushBatch();
+                        delegate.print(styled.style(), styled.text());
+                    } else {
+                        batch.append((String) text);
+                    }
+                } while (batch.length() < MAX_DRAIN_CHARS && (text = queue.poll()) != null);
+                flushBatch();
+            } catch (final RuntimeException e) {
+                failures.increment();
+                drainer.getUncaughtExceptionHandler().uncaughtException(drainer, e);
+            }
+        }
+    }
+
+    private void flushBatch() {
+        if (!batch.isEmpty()) {
+            delegate.print(batch.toString());
+            batch.setLength(0);
+        }
+    }
+
+    private record StyledText(Style style, String text) {
+    }
+
+}
@@ -0,0 +1,39 @@
+package org.pemacy.solace;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled format plans shared by every thread. A hit is a lock-free lookup; once the cache is full, each
+ * new format evicts an arbitrary one, so a program cycling through many formats cannot grow it.
+ */
+final class FormatCache {
+
+    private static final int CAPACITY = 256;
+
+    private static final Map<String, FormatPlan> PLANS = new ConcurrentHashMap<>(CAPACITY * 2);
+
+    private FormatCache() {
+    }
+
+    static FormatPlan get(final String format) {
+        final var plan = PLANS.get(format);
+        if (plan != null) {
+            return plan;
+        }
+        final var compiled = FormatPlan.compile(format);
+        final var previous = PLANS.putIfAbsent(format, compiled);
+        if (previous != null) {
+            return previous;
+        }
+        final var keys = PLANS.keySet().iterator();
+        while (PLANS.size() > CAPACITY && keys.hasNext()) {
+            final var key = keys.next();
+            if (!key.equals(format)) {
+                PLANS.remove(key);
+            }
+        }
+        return compiled;
+    }
+
+}
@@ -0,0 +1,223 @@
+package org.pemacy.solace;
+
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.Formattable;
+import java.util.Locale;
+
+/**
+ * A printf format string parsed once into literal and conversion segments. Only {@code %s}, {@code %d},
+ * {@code %c} and {@code %b} with an optional width and {@code -} flag are rendered directly; any other
+ * format, or an argument the direct path cannot render exactly like {@link java.util.Formatter}, is
+ * delegated to {@link String#format(String, Object...)}.
+ * <p>
+ * Arguments are converted to strings before the {@link PrintBuffer} is taken, so a {@code toString()}
+ * that prints does not write into the text being rendered.
+ */
+final class FormatPlan {
+
+    private static final char LITERAL = 0;
+
+    private static volatile Locale checkedLocale;
+    private static volatile boolean asciiDigits;
+
+    private final String format;
+    private final char[] conversions;
+    private final String[] literals;
+    private final int[] widths;
+    private final boolean[] leftJustified;
+    private final boolean direct;
+
+    private FormatPlan(final String format, final ArrayList<Object> segments, final boolean direct) {
+        this.format = format;
+        this.direct = direct;
+        final var count = segments.size();
+        this.conversions = new char[count];
+        this.literals = new String[count];
+        this.widths = new int[count];
+        this.leftJustified = new boolean[count];
+        for (var i = 0; i < count; i++) {
+            if (segments.get(i) instanceof String literal) {
+                literals[i] = literal;
+            } else {
+                final var conversion = (Conversion) segments.get(i);
+                conversions[i] = conversion.type();
+                widths[i] = conversion.width();
+                leftJustified[i] = conversion.leftJustified();
+            }
+        }
+    }
+
+    static FormatPlan compile(final String format) {
+        final var segments = new ArrayList<Object>();
+        final var literal = new StringBuilder();
+        final var length = format.length();
+        var i = 0;
+        while (i < length) {
+            final var c = format.charAt(i++);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            if (i == length) {
+                return new FormatPlan(format, segments, false);
+            }
+            final var next = format.charAt(i);
+            if (next == '%') {
+                literal.append('%');
+                i++;
+                continue;
+            }
+            if (next == 'n') {
+                literal.append(System.lineSeparator());
+                i++;
+                continue;
+            }
+
+            var leftJustified = false;
+            if (format.charAt(i) == '-') {
+                leftJustified = true;
+                i++;
+            }
+            var width = 0;
+            if (i < length && format.charAt(i) >= '1' && format.charAt(i) <= '9') {
+                while (i < length && Character.isDigit(format.charAt(i))) {
+                    width = width * 10 + format.charAt(i++) - '0';
+                }
+            }
+            if (i == length || (leftJustified && width == 0)) {
+                return new FormatPlan(format, segments, false);
+            }
+            final var type = format.charAt(i++);
+            if (type != 's' && type != 'd' && type != 'c' && type != 'b') {
+                return new FormatPlan(format, segments, false);
+            }
+
+            if (!literal.isEmpty()) {
+                segments.add(literal.toString());
+                literal.setLength(0);
+            }
+            segments.add(new Conversion(type, width, leftJustified));
+        }
+        if (!literal.isEmpty()) {
+            segments.add(literal.toString());
+        }
+        return new FormatPlan(format, segments, true);
+    }
+
+    /**
+     * Renders the arguments into the print buffer of the calling thread and returns it.
+     */
+    PrintBuffer render(final Object[] args) {
+        if (!direct || !renderable(args)) {
+            final var formatted = String.format(format, args);
+            return PrintBuffer.get().append(formatted);
+        }
+        final var converted = convert(args);
+        final var buffer = PrintBuffer.get();
+        var argument = 0;
+        for (var i = 0; i < conversions.length; i++) {
+            final var type = conversions[i];
+            if (type == LITERAL) {
+                buffer.append(literals[i]);
+                continue;
+            }
+            final var start = buffer.length();
+            final var index = argument++;
+            final var arg = args[index];
+            switch (type) {
+                case 's' -> buffer.append(converted == null || converted[index] == null ? arg : converted[index]);
+                case 'c' -> {
+                    if (arg == null) {
+                        buffer.append("null");
+                    } else {
+                        buffer.append(((Character) arg).charValue());
+                    }
+                }
+                case 'd' -> {
+                    if (arg == null) {
+                        buffer.append("null");
+                    } else {
+                        buffer.append(((Number) arg).longValue());
+                    }
+                }
+                case 'b' -> buffer.append(arg != null && (!(arg instanceof Boolean value) || value));
+                default -> throw new IllegalStateException("Unexpected conversion: " + type);
+            }
+            if (widths[i] > 0) {
+                buffer.pad(start, widths[i], leftJustified[i]);
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Converts the arguments of {@code %s} conversions whose {@code toString()} may run code of the
+     * application, returning null if there are none.
+     */
+    private String[] convert(final Object[] args) {
+        String[] converted = null;
+        var argument = 0;
+        for (final var type : conversions) {
+            if (type == LITERAL) {
+                continue;
+            }
+            final var index = argument++;
+            final var arg = args[index];
+            if (type == 's' && !plain(arg)) {
+                if (converted == null) {
+                    converted = new String[args.length];
+                }
+                converted[index] = arg.toString();
+            }
+        }
+        return converted;
+    }
+
+    /**
+     * Returns whether the argument is null or of a type whose {@code toString()} is the platform's own.
+     */
+    private static boolean plain(final Object arg) {
+        return arg == null || arg instanceof String || arg instanceof Integer || arg instanceof Long
+                || arg instanceof Short || arg instanceof Byte || arg instanceof Double || arg instanceof Float
+                || arg instanceof Boolean || arg instanceof Character;
+    }
+
+    private boolean renderable(final Object[] args) {
+        var argument = 0;
+        for (final var type : conversions) {
+            if (type == LITERAL) {
+                continue;
+            }
+            if (args == null || argument >= args.length) {
+                return false;
+            }
+            final var arg = args[argument++];
+            final var valid = switch (type) {
+                case 's' -> !(arg instanceof Formattable);
+                case 'd' -> arg == null || (asciiDigits() && (arg instanceof Integer || arg instanceof Long
+                        || arg instanceof Short || arg instanceof Byte));
+                case 'c' -> arg == null || arg instanceof Character;
+                default -> true;
+            };
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean asciiDigits() {
+        final var locale = Locale.getDefault(Locale.Category.FORMAT);
+        if (locale != checkedLocale) {
+            final var symbols = DecimalFormatSymbols.getInstance(locale);
+            asciiDigits = symbols.getZeroDigit() == '0' && symbols.getMinusSign() == '-';
+            checkedLocale = locale;
+        }
+        return asciiDigits;
+    }
+
+    private record Conversion(char type, int width, boolean leftJustified) {
+    }
+
+}
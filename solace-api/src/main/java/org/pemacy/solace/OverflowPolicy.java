@@ -0,0 +1,10 @@
+package org.pemacy.solace;
+
+public enum OverflowPolicy {
+
+    BLOCK,
+    DROP_OLDEST,
+    DROP_NEWEST,
+    SAMPLE
+
+}
@@ -0,0 +1,130 @@
+package org.pemacy.solace;
+
+/**
+ * Per-thread scratch space used by the primitive {@link Writer} overloads to render values without
+ * boxing them or allocating intermediate strings.
+ * <p>
+ * A thread's buffer is claimed from {@link #get()} until it has been written, and a thread that prints
+ * again in the meantime, from a writer it prints to, gets a buffer of its own. Anything that may print,
+ * such as the {@code toString()} of an argument, should still be evaluated before the buffer is taken.
+ */
+final class PrintBuffer {
+
+    private static final int RETAINED_CAPACITY = 8192;
+
+    private static final ThreadLocal<PrintBuffer> BUFFERS = ThreadLocal.withInitial(PrintBuffer::new);
+
+    private final StringBuilder builder = new StringBuilder(64);
+    private char[] chars = new char[64];
+    private boolean claimed;
+
+    /**
+     * Returns the emptied buffer of the calling thread, or a new one if that is still being written.
+     */
+    static PrintBuffer get() {
+        final var buffer = BUFFERS.get();
+        if (buffer.claimed) {
+            return new PrintBuffer();
+        }
+        buffer.claimed = true;
+        buffer.builder.setLength(0);
+        return buffer;
+    }
+
+    PrintBuffer append(final int value) {
+        builder.append(value);
+        return this;
+    }
+
+    PrintBuffer append(final long value) {
+        builder.append(value);
+        return this;
+    }
+
+    PrintBuffer append(final double value) {
+        builder.append(value);
+        return this;
+    }
+
+    PrintBuffer append(final char value) {
+        builder.append(value);
+        return this;
+    }
+
+    PrintBuffer append(final boolean value) {
+        builder.append(value);
+        return this;
+    }
+
+    PrintBuffer append(final CharSequence value) {
+        builder.append(value);
+        return this;
+    }
+
+    PrintBuffer append(final char[] value, final int offset, final int length) {
+        builder.append(value, offset, length);
+        return this;
+    }
+
+    PrintBuffer append(final Object value) {
+        builder.append(value);
+        return this;
+    }
+
+    PrintBuffer pad(final int start, final int width, final boolean leftJustify) {
+        final var padding = width - (builder.length() - start);
+        for (var i = 0; i < padding; i++) {
+            if (leftJustify) {
+                builder.append(' ');
+            } else {
+                builder.insert(start, ' ');
+            }
+        }
+        return this;
+    }
+
+    int length() {
+        return builder.length();
+    }
+
+    PrintBuffer reset() {
+        builder.setLength(0);
+        return this;
+    }
+
+    <Self> Writer<Self> writeTo(final Writer<Self> writer) {
+        final var length = builder.length();
+        try {
+            return writer.print(take(length), 0, length);
+        } finally {
+            claimed = false;
+        }
+    }
+
+    <Self> Writer<Self> writeTo(final Writer<Self> writer, final Style style) {
+        final var length = builder.length();
+        try {
+            return writer.print(style, take(length), 0, length);
+        } finally {
+            claimed = false;
+        }
+    }
+
+    /**
+     * Copies the text into the reused character array and returns it, releasing both if they grew large.
+     */
+    private char[] take(final int length) {
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length << 1)];
+        }
+        builder.getChars(0, length, chars, 0);
+        final var taken = chars;
+        if (length > RETAINED_CAPACITY) {
+            builder.setLength(0);
+            builder.trimToSize();
+            chars = new char[64];
+        }
+        return taken;
+    }
+
+}
@@ -0,0 +1,67 @@
+package org.pemacy.solace;
+
+/**
+ * Text attributes for styled output. A style packs into a single {@code int} so output areas can store
+ * it per run of text rather than per character; the default style packs to {@code 0}. A {@code null}
+ * color means the output area's own color.
+ */
+public record Style(TextColor foreground, TextColor background, boolean bold, boolean underline) {
+
+    public static final Style DEFAULT = new Style(null, null, false, false);
+
+    private static final int COLOR_BITS = 5;
+    private static final int COLOR_MASK = (1 << COLOR_BITS) - 1;
+    private static final int BOLD = 1 << 2 * COLOR_BITS;
+    private static final int UNDERLINE = BOLD << 1;
+
+    public static Style foreground(final TextColor foreground) {
+        return new Style(foreground, null, false, false);
+    }
+
+    public Style withForeground(final TextColor foreground) {
+        return new Style(foreground, background, bold, underline);
+    }
+
+    public Style withBackground(final TextColor background) {
+        return new Style(foreground, background, bold, underline);
+    }
+
+    public Style withBold(final boolean bold) {
+        return new Style(foreground, background, bold, underline);
+    }
+
+    public Style withUnderline(final boolean underline) {
+        return new Style(foreground, background, bold, underline);
+    }
+
+    public int pack() {
+        return color(foreground) | color(background) << COLOR_BITS | (bold ? BOLD : 0) | (underline ? UNDERLINE : 0);
+    }
+
+    public static Style unpack(final int packed) {
+        return packed == 0 ? DEFAULT : new Style(foreground(packed), background(packed), bold(packed), underline(packed));
+    }
+
+    public static TextColor foreground(final int packed) {
+        final var color = packed & COLOR_MASK;
+        return color == 0 ? null : TextColor.of(color - 1);
+    }
+
+    public static TextColor background(final int packed) {
+        final var color = packed >>> COLOR_BITS & COLOR_MASK;
+        return color == 0 ? null : TextColor.of(color - 1);
+    }
+
+    public static boolean bold(final int packed) {
+        return (packed & BOLD) != 0;
+    }
+
+    public static boolean underline(final int packed) {
+        return (packed & UNDERLINE) != 0;
+    }
+
+    private static int color(final TextColor color) {
+        return color == null ? 0 : color.ordinal() + 1;
+    }
+
+}
@@ -0,0 +1,38 @@
+package org.pemacy.solace;
+
+public enum TextColor {
+
+    BLACK(0x000000),
+    RED(0xcd3131),
+    GREEN(0x0dbc79),
+    YELLOW(0xe5e510),
+    BLUE(0x2472c8),
+    MAGENTA(0xbc3fbc),
+    CYAN(0x11a8cd),
+    WHITE(0xe5e5e5),
+    BRIGHT_BLACK(0x666666),
+    BRIGHT_RED(0xf14c4c),
+    BRIGHT_GREEN(0x23d18b),
+    BRIGHT_YELLOW(0xf5f543),
+    BRIGHT_BLUE(0x3b8eea),
+    BRIGHT_MAGENTA(0xd670d6),
+    BRIGHT_CYAN(0x29b8db),
+    BRIGHT_WHITE(0xffffff);
+
+    private static final TextColor[] VALUES = values();
+
+    private final int rgb;
+
+    TextColor(final int rgb) {
+        this.rgb = rgb;
+    }
+
+    public int getRgb() {
+        return rgb;
+    }
+
+    static TextColor of(final int ordinal) {
+        return VALUES[ordinal];
+    }
+
+}
@@ -4,20 +4,93 @@ public interface Writer<Self> {
 
     Writer<Self> print(final Object content);
 
+    default Writer<Self> print(final char[] buffer, final int offset, final int length) {
+        return print(new String(buffer, offset, length));
+    }
+
+    default Writer<Self> print(final CharSequence content) {
+        return print((Object) content);
+    }
+
+    default Writer<Self> print(final int value) {
+        return PrintBuffer.get().append(value).writeTo(this);
+    }
+
+    default Writer<Self> print(final long value) {
+        return PrintBuffer.get().append(value).writeTo(this);
+    }
+
+    default Writer<Self> print(final double value) {
+        return PrintBuffer.get().append(value).writeTo(this);
+    }
+
+    default Writer<Self> print(final char value) {
+        return PrintBuffer.get().append(value).writeTo(this);
+    }
+
+    default Writer<Self> print(final boolean value) {
+        return print(value ? "true" : "false");
+    }
+
+    /**
+     * Prints content in the given style. Writers that cannot style output print it unstyled.
+     */
+    default Writer<Self> print(final Style style, final Object content) {
+        return print(content);
+    }
+
+    default Writer<Self> print(final Style style, final char[] buffer, final int offset, final int length) {
+        return print(style, new String(buffer, offset, length));
+    }
+
+    default Writer<Self> println(final Style style, final Object content) {
+        final var text = String.valueOf(content);
+        return PrintBuffer.get().append(text).append('\n').writeTo(this, style);
+    }
+
     default Writer<Self> println() {
-        return print("");
+        return print('\n');
     }
 
     default Writer<Self> println(final Object content) {
-        return print(content + "\n");
+        final var text = String.valueOf(content);
+        return PrintBuffer.get().append(text).append('\n').writeTo(this);
+    }
+
+    default Writer<Self> println(final char[] buffer, final int offset, final int length) {
+        return PrintBuffer.get().append(buffer, offset, length).append('\n').writeTo(this);
+    }
+
+    default Writer<Self> println(final CharSequence content) {
+        return PrintBuffer.get().append(content == null ? "null" : content).append('\n').writeTo(this);
+    }
+
+    default Writer<Self> println(final int value) {
+        return PrintBuffer.get().append(value).append('\n').writeTo(this);
+    }
+
+    default Writer<Self> println(final long value) {
+        return PrintBuffer.get().append(value).append('\n').writeTo(this);
+    }
+
+    default Writer<Self> println(final double value) {
+        return PrintBuffer.get().append(value).append('\n').writeTo(this);
+    }
+
+    default Writer<Self> println(final char value) {
+        return PrintBuffer.get().append(value).append('\n').writeTo(this);
+    }
+
+    default Writer<Self> println(final boolean value) {
+        return PrintBuffer.get().append(value).append('\n').writeTo(this);
     }
 
     default Writer<Self> printf(final Object format, final Object... args) {
-        return print(String.valueOf(format).formatted(args));
+        return FormatCache.get(String.valueOf(format)).render(args).writeTo(this);
     }
 
     default Writer<Self> printfln(final Object format, final Object... args) {
-        return println(String.valueOf(format).formatted(args));
+        return FormatCache.get(String.valueOf(format)).render(args).append('\n').writeTo(this);
     }
 
     Self getSelf();
@@ -0,0 +1,344 @@
+package org.pemacy.solace;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncWriterTest {
+
+    private static final int CAPACITY = 8;
+
+    @Test
+    void printsEverythingInOrderBeforeClosing() throws InterruptedException {
+        final var delegate = new CollectingWriter();
+        final var writer = AsyncWriter.start(delegate);
+        final var expected = new StringBuilder();
+        for (var i = 0; i < 10_000; i++) {
+            writer.println(i);
+            expected.append(i).append('\n');
+        }
+        writer.close();
+        assertEquals(expected.toString(), delegate.text());
+        assertEquals(10_000, writer.getAccepted());
+    }
+
+    @Test
+    void wakesUpForEachWriteWhenIdle() throws InterruptedException {
+        final var delegate = new CollectingWriter();
+        try (final var writer = AsyncWriter.start(delegate)) {
+            for (var i = 0; i < 200; i++) {
+                writer.print('x');
+                final var length = i + 1;
+                assertTrue(delegate.await(() -> delegate.text().length() == length), "write " + i + " arrived");
+            }
+        }
+    }
+
+    @Test
+    void blockingLosesNothingUnderContention() throws InterruptedException {
+        final var delegate = new CollectingWriter();
+        final var writer = AsyncWriter.start(delegate, CAPACITY, OverflowPolicy.BLOCK);
+        final var threads = new ArrayList<Thread>();
+        for (var t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (var i = 0; i < 10_000; i++) {
+                    writer.print('x');
+                }
+            }));
+        }
+        for (final var thread : threads) {
+            thread.join();
+        }
+        writer.close();
+        assertEquals(80_000, delegate.text().length());
+        assertEquals(80_000, writer.getAccepted());
+        assertEquals(0, writer.getDroppedOldest() + writer.getDroppedNewest());
+    }
+
+    @Test
+    void droppingNewestKeepsTheQueuedWrites() throws InterruptedException {
+        final var delegate = new CollectingWriter();
+        final var writer = AsyncWriter.start(delegate, CAPACITY, OverflowPolicy.DROP_NEWEST);
+        fillWhileBlocked(delegate, writer, 4);
+        writer.close();
+        assertEquals(lines(0, CAPACITY + 1), delegate.lines());
+        assertEquals(4, writer.getOverflows());
+        assertEquals(4, writer.getDroppedNewest());
+        assertEquals(0, writer.getDroppedOldest());
+    }
+
+    @Test
+    void droppingOldestKeepsTheLatestWrites() throws InterruptedException {
+        final var delegate = new CollectingWriter();
+        final var writer = AsyncWriter.start(delegate, CAPACITY, OverflowPolicy.DROP_OLDEST);
+        fillWhileBlocked(delegate, writer, 4);
+        writer.close();
+        final var expected = new ArrayList<>(List.of("0"));
+        expected.addAll(lines(5, CAPACITY + 5));
+        assertEquals(expected, delegate.lines());
+        assertEquals(4, writer.getDroppedOldest());
+        assertEquals(0, writer.getDroppedNewest());
+    }
+
+    @Test
+    void samplingKeepsEveryNthOverflowingWrite() throws InterruptedException {
+        final var delegate = new CollectingWriter();
+        final var writer = AsyncWriter.start(delegate, CAPACITY, OverflowPolicy.SAMPLE, 4);
+        fillWhileBlocked(delegate, writer, 8);
+        writer.close();
+        assertEquals(8, writer.getOverflows());
+        assertEquals(6, writer.getDroppedNewest());
+        assertEquals(2, writer.getDroppedOldest());
+        final var expected = new ArrayList<>(List.of("0"));
+        expected.addAll(lines(3, CAPACITY + 1));
+        expected.addAll(List.of(String.valueOf(CAPACITY + 4), String.valueOf(CAPACITY + 8)));
+        assertEquals(expected, delegate.lines());
+    }
+
+    @Test
+    void samplesExactlyOneInNUnderContention() throws InterruptedException {
+        final var delegate = new CollectingWriter();
+        final var writer = AsyncWriter.start(delegate, CAPACITY, OverflowPolicy.SAMPLE, 4);
+        delegate.block();
+        writer.print("first\n");
+        delegate.awaitBlocked();
+        for (var i = 0; i < CAPACITY; i++) {
+            writer.print("queued\n");
+        }
+        final var threads = new ArrayList<Thread>();
+        for (var t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (var i = 0; i < 1_000; i++) {
+                    writer.print("overflow\n");
+                }
+            }));
+        }
+        for (final var thread : threads) {
+            thread.join();
+        }
+        delegate.release();
+        writer.close();
+        // Evictions free slots that other producers may fill without overflowing, so only the ratio is exact
+        final var overflows = writer.getOverflows();
+        assertEquals(overflows - overflows / 4, writer.getDroppedNewest());
+        assertEquals(1 + CAPACITY + 8_000, writer.getAccepted() + writer.getDroppedNewest());
+        assertEquals(writer.getAccepted() - writer.getDroppedOldest(), delegate.lines().size());
+    }
+
+    @Test
+    void keepsStylesInOrderWithPlainText() throws InterruptedException {
+        final var delegate = new CollectingWriter();
+        final var red = Style.foreground(TextColor.RED);
+        try (final var writer = AsyncWriter.start(delegate)) {
+            writer.print("a").print(red, "b").print(Style.DEFAULT, "c").print("d");
+        }
+        assertEquals("a[b]cd", delegate.text());
+        assertTrue(delegate.writes().contains("[b]"));
+    }
+
+    @Test
+    void keepsDrainingAfterTheDelegateThrows() throws InterruptedException {
+        final var delegate = new CollectingWriter();
+        final var writer = AsyncWriter.start(delegate);
+        delegate.failNext();
+        writer.print("lost");
+        assertTrue(delegate.await(() -> writer.getFailures() == 1));
+        writer.print("kept");
+        writer.close();
+        assertEquals("kept", delegate.text());
+    }
+
+    @Test
+    void rejectsWritesOnceClosed() throws InterruptedException {
+        final var writer = AsyncWriter.start(new CollectingWriter());
+        writer.close();
+        assertThrows(IllegalStateException.class, () -> writer.print("late"));
+    }
+
+    @Test
+    void deliversWritesRacingWithClose() throws InterruptedException {
+        for (var round = 0; round < 200; round++) {
+            final var delegate = new CollectingWriter();
+            final var writer = AsyncWriter.start(delegate);
+            final var accepted = new int[1];
+            final var producer = Thread.ofPlatform().start(() -> {
+                try {
+                    while (true) {
+                        writer.print('x');
+                        accepted[0]++;
+                    }
+                } catch (final IllegalStateException e) {
+                    // Closed
+                }
+            });
+            Thread.sleep(0, 50_000);
+            writer.close();
+            producer.join();
+            assertEquals(accepted[0], delegate.text().length(), "round " + round);
+        }
+    }
+
+    @Test
+    void closesFromTheDrainingThreadWithoutWaitingForItself() throws InterruptedException {
+        final var text = new StringBuffer();
+        final var holder = new ArrayList<AsyncWriter<Void>>();
+        final var writer = AsyncWriter.start(new Writer<Void>() {
+
+            @Override
+            public Writer<Void> print(final Object content) {
+                text.append(content);
+                if (text.indexOf("stop") >= 0) {
+                    holder.get(0).close();
+                }
+                return this;
+            }
+
+            @Override
+            public Void getSelf() {
+                return null;
+            }
+
+        });
+        holder.add(writer);
+        writer.print("stop");
+        final var closer = Thread.ofPlatform().start(writer::close);
+        closer.join(10_000);
+        assertFalse(closer.isAlive(), "close returned");
+        assertEquals("stop", text.toString());
+    }
+
+    @Test
+    void returnsInterruptedWhenClosingIsInterrupted() throws InterruptedException {
+        final var delegate = new CollectingWriter();
+        final var writer = AsyncWriter.start(delegate);
+        delegate.block();
+        writer.print("held");
+        delegate.awaitBlocked();
+        Thread.currentThread().interrupt();
+        writer.close();
+        assertTrue(Thread.interrupted(), "interrupt status kept");
+        delegate.release();
+        writer.close();
+        assertEquals("held", delegate.text());
+    }
+
+    /**
+     * Blocks the delegate on the write of line 0, fills the queue with the next lines up to the capacity,
+     * then writes the given number of lines more, all of which overflow.
+     */
+    private static void fillWhileBlocked(final CollectingWriter delegate, final AsyncWriter<Void> writer,
+                                         final int overflowing) throws InterruptedException {
+        delegate.block();
+        writer.print("0\n");
+        delegate.awaitBlocked();
+        for (var i = 1; i <= CAPACITY + overflowing; i++) {
+            writer.print(i + "\n");
+        }
+        delegate.release();
+    }
+
+    private static List<String> lines(final int from, final int to) {
+        final var lines = new ArrayList<String>();
+        for (var i = from; i < to; i++) {
+            lines.add(String.valueOf(i));
+        }
+        return lines;
+    }
+
+    private static final class CollectingWriter implements Writer<Void> {
+
+        private final List<String> writes = new ArrayList<>();
+        private volatile boolean blocking;
+        private volatile CountDownLatch blocked;
+        private volatile CountDownLatch released;
+        private volatile boolean failNext;
+
+        @Override
+        public Writer<Void> print(final Object content) {
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException("failed on purpose");
+            }
+            if (blocking) {
+                blocking = false;
+                blocked.countDown();
+                try {
+                    released.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (writes) {
+                writes.add(String.valueOf(content));
+            }
+            return this;
+        }
+
+        @Override
+        public Writer<Void> print(final Style style, final Object content) {
+            return print("[" + content + "]");
+        }
+
+        @Override
+        public Void getSelf() {
+            return null;
+        }
+
+        /**
+         * Makes the next write wait until {@link #release()} is called.
+         */
+        private void block() {
+            blocked = new CountDownLatch(1);
+            released = new CountDownLatch(1);
+            blocking = true;
+        }
+
+        private void awaitBlocked() throws InterruptedException {
+            assertTrue(blocked.await(5, TimeUnit.SECONDS), "delegate blocked");
+        }
+
+        private void release() {
+            released.countDown();
+        }
+
+        private void failNext() {
+            failNext = true;
+        }
+
+        private List<String> writes() {
+            synchronized (writes) {
+                return new ArrayList<>(writes);
+            }
+        }
+
+        private String text() {
+            return String.join("", writes());
+        }
+
+        private List<String> lines() {
+            return text().lines().toList();
+        }
+
+        private boolean await(final BooleanSupplier condition) throws InterruptedException {
+            final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!condition.getAsBoolean()) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                Thread.sleep(1);
+            }
+            return true;
+        }
+
+    }
+
+}
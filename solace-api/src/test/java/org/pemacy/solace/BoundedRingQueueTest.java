@@ -0,0 +1,129 @@
+package org.pemacy.solace;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class BoundedRingQueueTest {
+
+    @Test
+    void roundsCapacityUpToAPowerOfTwo() {
+        assertEquals(2, new BoundedRingQueue<>(2).capacity());
+        assertEquals(8, new BoundedRingQueue<>(5).capacity());
+        assertEquals(8, new BoundedRingQueue<>(8).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new BoundedRingQueue<>(1));
+    }
+
+    @Test
+    void rejectsOffersWhenFull() {
+        final var queue = new BoundedRingQueue<Integer>(4);
+        for (var i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4));
+        assertEquals(0, queue.poll());
+        assertTrue(queue.offer(4));
+        assertFalse(queue.offer(5));
+    }
+
+    @Test
+    void pollsInOrderAcrossWrapAround() {
+        final var queue = new BoundedRingQueue<Integer>(4);
+        var next = 0;
+        for (var i = 0; i < 1000; i++) {
+            assertTrue(queue.offer(i));
+            if (i % 3 == 2) {
+                for (var j = 0; j < 3; j++) {
+                    assertEquals(next++, queue.poll());
+                }
+            }
+        }
+        while (!queue.isEmpty()) {
+            assertEquals(next++, queue.poll());
+        }
+        assertEquals(1000, next);
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void keepsEveryElementOfConcurrentProducers() throws InterruptedException {
+        final var producers = 4;
+        final var perProducer = 50_000;
+        final var queue = new BoundedRingQueue<Long>(64);
+        final var start = new CountDownLatch(1);
+        final var threads = new ArrayList<Thread>();
+        for (var p = 0; p < producers; p++) {
+            final long producer = p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (final InterruptedException e) {
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    while (!queue.offer(producer << 32 | i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        start.countDown();
+
+        final var next = new long[producers];
+        for (var received = 0; received < producers * perProducer; ) {
+            final var element = queue.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            final var producer = (int) (element >>> 32);
+            if ((element & 0xFFFF_FFFFL) != next[producer]++) {
+                fail("Producer " + producer + " out of order at " + next[producer]);
+            }
+            received++;
+        }
+        for (final var thread : threads) {
+            thread.join();
+        }
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void letsProducersEvictWhileTheConsumerPolls() throws InterruptedException {
+        final var queue = new BoundedRingQueue<Integer>(8);
+        final var total = 100_000;
+        final var evicted = new int[1];
+        final var producer = Thread.ofPlatform().start(() -> {
+            for (var i = 0; i < total; i++) {
+                while (!queue.offer(i)) {
+                    if (queue.poll() != null) {
+                        evicted[0]++;
+                    }
+                }
+            }
+        });
+        var consumed = 0;
+        var last = -1;
+        while (producer.isAlive() || !queue.isEmpty()) {
+            final var element = queue.poll();
+            if (element == null) {
+                Thread.yield();
+            } else {
+                assertTrue(element > last, "elements stay in order");
+                last = element;
+                consumed++;
+            }
+        }
+        producer.join();
+        assertEquals(total, consumed + evicted[0]);
+    }
+
+}
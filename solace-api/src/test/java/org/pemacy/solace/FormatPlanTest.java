@@ -0,0 +1,95 @@
+package org.pemacy.solace;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Formattable;
+import java.util.Formatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FormatPlanTest {
+
+    @Test
+    void rendersDirectConversionsLikeStringFormat() {
+        assertRendersLikeStringFormat("%s and %s", "cats", null);
+        assertRendersLikeStringFormat("[%5s|%-5s]", "ab", "cd");
+        assertRendersLikeStringFormat("[%3s]", "longer than the width");
+        assertRendersLikeStringFormat("%d %d %d %d", 42, -7L, (short) 3, (byte) -1);
+        assertRendersLikeStringFormat("[%6d|%-6d]", -42, 42);
+        assertRendersLikeStringFormat("%c%c %b %b %b", 'o', 'k', true, null, "anything");
+        assertRendersLikeStringFormat("100%% done%n", new Object[0]);
+        assertRendersLikeStringFormat("%s %s %s", 1.5, 2.5f, 'c');
+    }
+
+    @Test
+    void delegatesWhatItCannotRenderDirectly() {
+        assertRendersLikeStringFormat("%.2f", 3.14159);
+        assertRendersLikeStringFormat("%05d", 42);
+        assertRendersLikeStringFormat("%x", 255);
+        assertRendersLikeStringFormat("%d", BigInteger.TEN);
+        assertRendersLikeStringFormat("%s", new Formattable() {
+
+            @Override
+            public void formatTo(final Formatter formatter, final int flags, final int width, final int precision) {
+                formatter.format("formatted");
+            }
+
+        });
+    }
+
+    @Test
+    void keepsTheRenderedTextWhenAnArgumentPrints() {
+        final var writes = new ArrayList<String>();
+        final var writer = new Writer<Void>() {
+
+            @Override
+            public Writer<Void> print(final Object content) {
+                writes.add(String.valueOf(content));
+                return this;
+            }
+
+            @Override
+            public Void getSelf() {
+                return null;
+            }
+
+        };
+        final var noisy = new Object() {
+
+            @Override
+            public String toString() {
+                writer.println(99);
+                return "noisy";
+            }
+
+        };
+        writer.printf("[%-7s] %d", noisy, 5);
+        writer.printfln("%s!", noisy);
+        writer.printf("%.1f %s", 1.0, noisy);
+        assertEquals(List.of("99\n", "[noisy  ] 5", "99\n", "noisy!\n", "99\n", "1.0 noisy"), writes);
+    }
+
+    private static void assertRendersLikeStringFormat(final String format, final Object... args) {
+        final var rendered = FormatPlan.compile(format).render(args);
+        final var builder = new StringBuilder();
+        rendered.writeTo(new Writer<Void>() {
+
+            @Override
+            public Writer<Void> print(final Object content) {
+                builder.append(content);
+                return this;
+            }
+
+            @Override
+            public Void getSelf() {
+                return null;
+            }
+
+        });
+        assertEquals(String.format(format, args), builder.toString(), format);
+    }
+
+}
@@ -0,0 +1,81 @@
+package org.pemacy.solace;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WriterTest {
+
+    private final StringWriter writer = new StringWriter();
+
+    @Test
+    void printsPrimitivesLikeStrings() {
+        writer.print(42).print(-7L).print(1.5).print('x').print(true).println(3).println('c');
+        assertEquals(List.of("42", "-7", "1.5", "x", "true", "3\n", "c\n"), writer.writes);
+    }
+
+    @Test
+    void printsLinesOfCharactersAndObjects() {
+        writer.println(new char[]{'a', 'b', 'c'}, 1, 2).println((Object) null).println((CharSequence) null);
+        writer.println(Style.foreground(TextColor.RED), "red");
+        assertEquals(List.of("bc\n", "null\n", "null\n", "red\n"), writer.writes);
+    }
+
+    @Test
+    void keepsALineWhoseContentPrintsWhileItIsRendered() {
+        final var content = new Object() {
+
+            @Override
+            public String toString() {
+                writer.println(99);
+                return "outer";
+            }
+
+        };
+        writer.println(content);
+        writer.println(Style.foreground(TextColor.RED), content);
+        assertEquals(List.of("99\n", "outer\n", "99\n", "outer\n"), writer.writes);
+    }
+
+    @Test
+    void keepsALineThatAWriterPrintsFromWithinAPrint() {
+        final var outer = new StringWriter() {
+
+            @Override
+            public Writer<Void> print(final char[] buffer, final int offset, final int length) {
+                writer.println(7);
+                return super.print(buffer, offset, length);
+            }
+
+        };
+        outer.println(12345);
+        assertEquals(List.of("12345\n"), outer.writes);
+        assertEquals(List.of("7\n"), writer.writes);
+    }
+
+    private static class StringWriter implements Writer<Void> {
+
+        final List<String> writes = new ArrayList<>();
+
+        @Override
+        public Writer<Void> print(final Object content) {
+            writes.add(String.valueOf(content));
+            return this;
+        }
+
+        @Override
+        public Writer<Void> print(final Style style, final Object content) {
+            return print(content);
+        }
+
+        @Override
+        public Void getSelf() {
+            return null;
+        }
+
+    }
+
+}
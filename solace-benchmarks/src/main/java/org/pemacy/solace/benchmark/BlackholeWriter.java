@@ -0,0 +1,32 @@
+package org.pemacy.solace.benchmark;
+
+import org.openjdk.jmh.infra.Blackhole;
+import org.pemacy.solace.Writer;
+
+public class BlackholeWriter implements Writer<Blackhole> {
+
+    private final Blackhole blackhole;
+
+    public BlackholeWriter(final Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public Writer<Blackhole> print(final Object content) {
+        blackhole.consume(content);
+        return this;
+    }
+
+    @Override
+    public Writer<Blackhole> print(final char[] buffer, final int offset, final int length) {
+        blackhole.consume(buffer[offset]);
+        blackhole.consume(length);
+        return this;
+    }
+
+    @Override
+    public Blackhole getSelf() {
+        return blackhole;
+    }
+
+}
@@ -0,0 +1,72 @@
+package org.pemacy.solace.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.pemacy.solace.ui.output.ComponentOutputArea;
+import org.pemacy.solace.ui.output.GridOutputArea;
+import org.pemacy.solace.ui.output.Scrollback;
+import org.pemacy.solace.ui.output.SwingOutputArea;
+
+import javax.swing.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class LayoutBenchmark {
+
+    private static final String LINE = "The quick brown fox jumps over the lazy dog while the build keeps on running\n";
+
+    @Param({"1000", "10000", "100000"})
+    private int lines;
+
+    @Param({"text-area", "grid"})
+    private String renderer;
+
+    private final BufferedImage image = new BufferedImage(1024, 512, BufferedImage.TYPE_INT_RGB);
+    private ComponentOutputArea outputArea;
+    private boolean wide;
+
+    @Setup
+    public void setUp() {
+        this.outputArea = switch (renderer) {
+            case "text-area" -> new SwingOutputArea(Scrollback.unbounded());
+            case "grid" -> new GridOutputArea(Scrollback.unbounded());
+            default -> throw new IllegalArgumentException(renderer);
+        };
+        layout(1024);
+        for (var i = 0; i < lines; i++) {
+            outputArea.append(LINE);
+        }
+        layout(1024);
+    }
+
+    @Benchmark
+    public Object resize() {
+        wide = !wide;
+        layout(wide ? 1024 : 512);
+        return outputArea.getComponent().getPreferredSize();
+    }
+
+    @Benchmark
+    public Object paint() {
+        final var graphics = image.createGraphics();
+        try {
+            outputArea.getComponent().paint(graphics);
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    private void layout(final int width) {
+        final var scrollPane = (JScrollPane) outputArea.getComponent();
+        scrollPane.setSize(width, 512);
+        scrollPane.doLayout();
+        scrollPane.getViewport().doLayout();
+    }
+
+}
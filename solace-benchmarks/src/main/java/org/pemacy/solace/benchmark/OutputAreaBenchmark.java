@@ -0,0 +1,52 @@
+package org.pemacy.solace.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.pemacy.solace.ui.output.ScrollbackBuilder;
+import org.pemacy.solace.ui.output.SwingOutputArea;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class OutputAreaBenchmark {
+
+    private static final String LINE = "2024-01-01T00:00:00.000Z INFO  [worker-7] Processed batch of 512 records\n";
+
+    @Param({"1000", "10000", "100000"})
+    private int scrollback;
+
+    private SwingOutputArea outputArea;
+    private StringBuilder batch;
+
+    @Setup
+    public void setUp() {
+        this.outputArea = new SwingOutputArea(new ScrollbackBuilder()
+                .maxLines(scrollback)
+                .build());
+        for (var i = 0; i < scrollback; i++) {
+            outputArea.append(LINE);
+        }
+        this.batch = new StringBuilder();
+        for (var i = 0; i < 100; i++) {
+            batch.append(LINE);
+        }
+    }
+
+    @Benchmark
+    public Object appendLine() {
+        outputArea.append(LINE);
+        return outputArea;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public Object appendBatch() {
+        outputArea.append(batch);
+        return outputArea;
+    }
+
+}
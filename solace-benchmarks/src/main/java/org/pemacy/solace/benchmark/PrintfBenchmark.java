@@ -0,0 +1,44 @@
+package org.pemacy.solace.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrintfBenchmark {
+
+    private static final String STATUS_FORMAT = "[%-8s] %6d/%d records, %s";
+
+    private BlackholeWriter writer;
+    private int counter;
+
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        this.writer = new BlackholeWriter(blackhole);
+    }
+
+    @Benchmark
+    public Object formatted() {
+        final var processed = counter++;
+        return writer.print(STATUS_FORMAT.formatted("import", processed, 1_000_000, "running"));
+    }
+
+    @Benchmark
+    public Object printf() {
+        final var processed = counter++;
+        return writer.printf(STATUS_FORMAT, "import", processed, 1_000_000, "running");
+    }
+
+    @Benchmark
+    public Object printfUnsupportedSpecifier() {
+        final var processed = counter++;
+        return writer.printf("%.2f%% complete", processed / 10_000.0);
+    }
+
+}
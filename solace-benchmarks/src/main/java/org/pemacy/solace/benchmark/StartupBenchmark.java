@@ -0,0 +1,79 @@
+package org.pemacy.solace.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.pemacy.solace.SolaceApplicationBuilder;
+import org.pemacy.solace.ui.SwingUserInterfaceFactory;
+import org.pemacy.solace.ui.window.SwingWindow;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from a cold JVM to the first frame of an application window, measured once per fork. The
+ * application bootstrap is simulated by busy work before the window is requested. Needs a display.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    @Param({"serial", "builder"})
+    private String startup;
+
+    @Param({"0", "100"})
+    private int bootstrapMillis;
+
+    @Benchmark
+    public Object firstFrame() throws Exception {
+        final Frame frame;
+        if (startup.equals("serial")) {
+            bootstrap();
+            final var window = new SwingWindow[1];
+            SwingUtilities.invokeAndWait(() -> window[0] = (SwingWindow) new SwingUserInterfaceFactory().newWindow());
+            window[0].setVisible(true);
+            frame = frame(window[0]);
+        } else {
+            final var builder = new SolaceApplicationBuilder();
+            bootstrap();
+            frame = frame((SwingWindow) builder.build().getWindow());
+        }
+        final var opened = new CountDownLatch(1);
+        SwingUtilities.invokeAndWait(() -> {
+            if (frame.isShowing()) {
+                opened.countDown();
+            }
+            frame.addWindowListener(new WindowAdapter() {
+
+                @Override
+                public void windowOpened(final WindowEvent event) {
+                    opened.countDown();
+                }
+
+            });
+        });
+        opened.await();
+        SwingUtilities.invokeAndWait(frame::dispose);
+        return frame;
+    }
+
+    private void bootstrap() {
+        final var end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(bootstrapMillis);
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static Frame frame(final SwingWindow window) throws Exception {
+        final var frame = new Frame[1];
+        SwingUtilities.invokeAndWait(() -> frame[0] = window.getFrame());
+        return frame[0];
+    }
+
+}
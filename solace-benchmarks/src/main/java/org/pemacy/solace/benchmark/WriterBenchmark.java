@@ -0,0 +1,56 @@
+package org.pemacy.solace.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WriterBenchmark {
+
+    private BlackholeWriter writer;
+    private int counter;
+    private double progress;
+
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        this.writer = new BlackholeWriter(blackhole);
+    }
+
+    @Benchmark
+    public Object printBoxedInt() {
+        return writer.print((Object) counter++);
+    }
+
+    @Benchmark
+    public Object printInt() {
+        return writer.print(counter++);
+    }
+
+    @Benchmark
+    public Object printDouble() {
+        progress += 0.25;
+        return writer.print(progress);
+    }
+
+    @Benchmark
+    public Object printlnConcatenated() {
+        return writer.print(counter++ + "\n");
+    }
+
+    @Benchmark
+    public Object printlnInt() {
+        return writer.println(counter++);
+    }
+
+    @Benchmark
+    public Object printlnString() {
+        return writer.println("Processed another batch of records");
+    }
+
+}
@@ -0,0 +1,64 @@
+package org.pemacy.solace;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A line of input split into tokens. The name is the first token, and the arguments and parameters are
+ * {@link TextSlice}s of the line, so none of their characters are copied.
+ *
+ * @param grammar    the grammar of the route that matched the line, or null if none did
+ * @param arguments  the tokens after those matched by the grammar, or after the name if none matched
+ * @param parameters the tokens bound to the parameters of the grammar by name
+ */
+public record Command(String line, String name, String grammar, List<CharSequence> arguments,
+                      Map<String, CharSequence> parameters) {
+
+    /**
+     * Returns the token bound to a parameter of the grammar.
+     *
+     * @throws IllegalArgumentException if the grammar has no such parameter
+     */
+    public CharSequence parameter(final String name) {
+        final var value = parameters.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("No parameter " + name + " in " + grammar);
+        }
+        return value;
+    }
+
+    /**
+     * Creates the command of a tokenized line.
+     *
+     * @param bounds the bounds written by {@link Tokenizer#tokenize}, which are copied
+     * @param route  the route that matched the line, or null
+     */
+    static Command of(final String line, final int[] bounds, final int count, final Route route) {
+        final var tokens = Arrays.copyOf(bounds, 2 * count);
+        final var first = route == null ? 1 : route.size();
+        final var arguments = new AbstractList<CharSequence>() {
+
+            @Override
+            public CharSequence get(final int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return new TextSlice(line, tokens[2 * (first + index)], tokens[2 * (first + index) + 1]);
+            }
+
+            @Override
+            public int size() {
+                return count - first;
+            }
+
+        };
+        final var name = line.substring(tokens[0], tokens[1]);
+        if (route == null) {
+            return new Command(line, name, null, arguments, Map.of());
+        }
+        return new Command(line, name, route.getGrammar(), arguments, route.bind(line, tokens));
+    }
+
+}
@@ -0,0 +1,14 @@
+package org.pemacy.solace;
+
+import org.pemacy.solace.ui.output.OutputArea;
+
+/**
+ * Handles a command. Handlers run on the application's command executor, never on the event dispatch
+ * thread, so they may block; an exception they throw is printed to the output.
+ */
+@FunctionalInterface
+public interface CommandHandler {
+
+    void handle(final Command command, final OutputArea output) throws Exception;
+
+}
@@ -0,0 +1,61 @@
+package org.pemacy.solace;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The latencies of one command, from the line being read to its handler returning. Each latency is counted
+ * in a power-of-two bucket, so percentiles are upper bounds that are within a factor of two.
+ */
+public class CommandLatency {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE);
+
+    void record(final long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        buckets.incrementAndGet(Long.SIZE - 1 - Long.numberOfLeadingZeros(Math.max(1, nanos)));
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMeanNanos() {
+        final var count = getCount();
+        return count == 0 ? 0 : totalNanos.sum() / count;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns a latency that the given fraction of commands did not exceed, such as 0.99.
+     */
+    public long getPercentileNanos(final double fraction) {
+        final var count = getCount();
+        final var rank = (long) Math.ceil(fraction * count);
+        var seen = 0L;
+        for (var bucket = 0; bucket < Long.SIZE; bucket++) {
+            seen += buckets.get(bucket);
+            if (seen >= rank && seen > 0) {
+                final var upper = bucket >= Long.SIZE - 2 ? Long.MAX_VALUE : (2L << bucket) - 1;
+                return Math.min(getMaxNanos(), upper);
+            }
+        }
+        return getMaxNanos();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.3fms p99=%.3fms max=%.3fms", getCount(), getMeanNanos() / 1e6,
+                getPercentileNanos(0.99) / 1e6, getMaxNanos() / 1e6);
+    }
+
+}
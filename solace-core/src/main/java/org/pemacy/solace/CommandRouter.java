@@ -0,0 +1,138 @@
+package org.pemacy.solace;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Routes tokenized lines to command handlers. All grammars are compiled up front into one decision trie
+ * with a level per token: the literals that may follow are kept sorted as character arrays, so a token is
+ * matched by a binary search that compares its characters in the line in place, and a parameter matches
+ * any token. Routing a line therefore neither copies nor allocates.
+ * <p>
+ * A literal is preferred over a parameter at the same position, and where a line matches no full grammar
+ * the longest grammar it starts with is used.
+ */
+public class CommandRouter {
+
+    private final Node root = new Node();
+
+    /**
+     * @throws IllegalArgumentException if two grammars differ only in the names of their parameters
+     */
+    public CommandRouter(final Collection<Route> routes) {
+        for (final var route : routes) {
+            var node = root;
+            for (var i = 0; i < route.size(); i++) {
+                node = route.isParameter(i) ? node.parameter() : node.literal(route.word(i).toCharArray());
+            }
+            if (node.route != null) {
+                throw new IllegalArgumentException("Command grammar " + route.getGrammar() + " conflicts with "
+                        + node.route.getGrammar());
+            }
+            node.route = route;
+        }
+    }
+
+    /**
+     * Returns the route of a line tokenized by {@link Tokenizer#tokenize}, or null if no grammar matches.
+     */
+    public Route route(final CharSequence line, final int[] bounds, final int count) {
+        return find(root, line, bounds, count, 0);
+    }
+
+    /**
+     * Returns the longest grammar below the node that the tokens from the given one start with, trying
+     * the literal before the parameter and stopping at the first grammar that takes every token.
+     */
+    private static Route find(final Node node, final CharSequence line, final int[] bounds, final int count,
+            final int token) {
+        var found = node.route;
+        if (token < count) {
+            final var literal = node.find(line, bounds[2 * token], bounds[2 * token + 1]);
+            if (literal != null) {
+                found = longer(found, find(literal, line, bounds, count, token + 1));
+                if (found != null && found.size() == count) {
+                    return found;
+                }
+            }
+            if (node.parameter != null) {
+                found = longer(found, find(node.parameter, line, bounds, count, token + 1));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the route with more words, or the first one if they have as many.
+     */
+    private static Route longer(final Route first, final Route second) {
+        return second != null && (first == null || second.size() > first.size()) ? second : first;
+    }
+
+    private static final class Node {
+
+        private char[][] literals = new char[0][];
+        private Node[] children = new Node[0];
+        private Node parameter;
+        private Route route;
+
+        private Node literal(final char[] word) {
+            final var index = Arrays.binarySearch(literals, word, Arrays::compare);
+            if (index >= 0) {
+                return children[index];
+            }
+            final var insert = -index - 1;
+            final var child = new Node();
+            literals = insert(literals, insert, word);
+            children = insert(children, insert, child);
+            return child;
+        }
+
+        private Node parameter() {
+            if (parameter == null) {
+                parameter = new Node();
+            }
+            return parameter;
+        }
+
+        /**
+         * Returns the child of the literal equal to the characters of the line between the bounds.
+         */
+        private Node find(final CharSequence line, final int start, final int end) {
+            var low = 0;
+            var high = literals.length - 1;
+            while (low <= high) {
+                final var middle = (low + high) >>> 1;
+                final var comparison = compare(literals[middle], line, start, end);
+                if (comparison < 0) {
+                    low = middle + 1;
+                } else if (comparison > 0) {
+                    high = middle - 1;
+                } else {
+                    return children[middle];
+                }
+            }
+            return null;
+        }
+
+        private static int compare(final char[] literal, final CharSequence line, final int start, final int end) {
+            final var length = Math.min(literal.length, end - start);
+            for (var i = 0; i < length; i++) {
+                final var difference = literal[i] - line.charAt(start + i);
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+            return literal.length - (end - start);
+        }
+
+        private static <T> T[] insert(final T[] array, final int index, final T element) {
+            final var grown = Arrays.copyOf(array, array.length + 1);
+            System.arraycopy(array, index, grown, index + 1, array.length - index);
+            grown[index] = element;
+            return grown;
+        }
+
+    }
+
+}
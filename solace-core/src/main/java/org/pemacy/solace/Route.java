@@ -0,0 +1,76 @@
+package org.pemacy.solace;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * A command grammar and its handler. A grammar is a sequence of words separated by whitespace, each
+ * either a literal that a token must equal or a parameter written as {@code <name>} that binds any token,
+ * such as {@code "user <id> rename <name>"}. Tokens after the end of a grammar are left as arguments.
+ */
+public class Route {
+
+    private final String grammar;
+    private final CommandHandler handler;
+    private final String[] words;
+    private final String[] parameters;
+
+    public Route(final String grammar, final CommandHandler handler) {
+        final var stripped = grammar.strip();
+        if (stripped.isEmpty()) {
+            throw new IllegalArgumentException("Empty command grammar");
+        }
+        this.grammar = grammar;
+        this.handler = handler;
+        this.words = stripped.split("\\s+");
+        this.parameters = new String[words.length];
+        final var names = new HashSet<String>();
+        for (var i = 0; i < words.length; i++) {
+            final var word = words[i];
+            if (word.indexOf('"') >= 0) {
+                throw new IllegalArgumentException("Quote in command grammar " + grammar);
+            }
+            if (word.length() > 2 && word.startsWith("<") && word.endsWith(">")) {
+                parameters[i] = word.substring(1, word.length() - 1);
+                if (!names.add(parameters[i])) {
+                    throw new IllegalArgumentException("Parameter " + word + " repeated in " + grammar);
+                }
+            }
+        }
+    }
+
+    public String getGrammar() {
+        return grammar;
+    }
+
+    public CommandHandler getHandler() {
+        return handler;
+    }
+
+    int size() {
+        return words.length;
+    }
+
+    String word(final int index) {
+        return words[index];
+    }
+
+    boolean isParameter(final int index) {
+        return parameters[index] != null;
+    }
+
+    /**
+     * Returns the tokens bound to the parameters of the grammar.
+     */
+    Map<String, CharSequence> bind(final String line, final int[] tokens) {
+        final var bound = new HashMap<String, CharSequence>();
+        for (var i = 0; i < parameters.length; i++) {
+            if (parameters[i] != null) {
+                bound.put(parameters[i], new TextSlice(line, tokens[2 * i], tokens[2 * i + 1]));
+            }
+        }
+        return bound;
+    }
+
+}
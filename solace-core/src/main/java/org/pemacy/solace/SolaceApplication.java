@@ -1,4 +1,218 @@
 package org.pemacy.solace;
 
-public class SolaceApplication {
+import org.pemacy.solace.ui.output.OutputArea;
+import org.pemacy.solace.ui.window.Window;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The runtime of a console application. It reads lines from the window's input area on a thread of its
+ * own, routes each to the handler of the command grammar it matches and runs that on the command
+ * executor, which by default starts a virtual thread per command. Handlers print to the window's output
+ * area, so neither reading input nor handling commands ever happens on the event dispatch thread, and a
+ * slow command only delays itself.
+ * <p>
+ * The grammars are compiled into a {@link CommandRouter} when the application starts, and again after
+ * a grammar is registered later. The latency of every command, from its line being read to its handler
+ * returning, is recorded per grammar, with commands that match no grammar sharing
+ * {@link #UNKNOWN_COMMAND}.
+ */
+public class SolaceApplication implements AutoCloseable {
+
+    /**
+     * The key under which the latencies of commands that match no grammar are recorded.
+     */
+    public static final String UNKNOWN_COMMAND = "";
+
+    private static final int INITIAL_BOUNDS = 32;
+
+    private final Window window;
+    private final ExecutorService executor;
+
+    private final Map<String, Route> routes = new LinkedHashMap<>();
+    private volatile CommandRouter router;
+    private final Map<String, CommandLatency> latencies = new ConcurrentHashMap<>();
+    private volatile CommandHandler unknownCommand = (command, output) ->
+            output.println("Unknown command: " + command.name());
+    private Thread reader;
+    private volatile boolean closed;
+
+    public SolaceApplication(final Window window) {
+        this(window, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public SolaceApplication(final Window window, final ExecutorService executor) {
+        this.window = window;
+        this.executor = executor;
+    }
+
+    /**
+     * Registers the handler of a command grammar, replacing any handler registered for the same grammar.
+     * See {@link Route} for the syntax. Once the application has started, the router is compiled again
+     * right away.
+     *
+     * @throws IllegalArgumentException if the grammar is invalid, or conflicts with another one after the
+     *                                  application has started
+     */
+    public synchronized SolaceApplication register(final String grammar, final CommandHandler handler) {
+        final var previous = routes.put(grammar, new Route(grammar, handler));
+        if (router != null) {
+            try {
+                router = new CommandRouter(routes.values());
+            } catch (final IllegalArgumentException e) {
+                if (previous == null) {
+                    routes.remove(grammar);
+                } else {
+                    routes.put(grammar, previous);
+                }
+                throw e;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Sets the handler of commands that have no handler of their own. By default it prints that the
+     * command is unknown.
+     */
+    public SolaceApplication onUnknownCommand(final CommandHandler handler) {
+        this.unknownCommand = handler;
+        return this;
+    }
+
+    /**
+     * Compiles the command router and starts reading lines from the input area.
+     *
+     * @throws IllegalArgumentException if two grammars conflict
+     */
+    public synchronized SolaceApplication start() {
+        if (closed) {
+            throw new IllegalStateException("Application is closed");
+        }
+        router();
+        if (reader == null) {
+            reader = Thread.ofVirtual().name("solace-command-reader").start(this::read);
+        }
+        return this;
+    }
+
+    /**
+     * Routes a line and runs its command on the command executor, as if it had been submitted to the
+     * input area. Blank lines are ignored.
+     *
+     * @return a future that completes when the handler has returned
+     */
+    public CompletableFuture<Void> dispatch(final String line) {
+        final var start = System.nanoTime();
+        final var bounds = new int[INITIAL_BOUNDS];
+        final var count = Tokenizer.tokenize(line, bounds);
+        return dispatch(start, line, fit(line, bounds, count), count);
+    }
+
+    private CompletableFuture<Void> dispatch(final long start, final String line, final int[] bounds,
+            final int count) {
+        if (count == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final var route = router().route(line, bounds, count);
+        final var command = Command.of(line, bounds, count, route);
+        final var latency = latencies.computeIfAbsent(route == null ? UNKNOWN_COMMAND : route.getGrammar(),
+                grammar -> new CommandLatency());
+        return CompletableFuture.runAsync(() -> {
+            final var output = getOutputArea();
+            try {
+                (route == null ? unknownCommand : route.getHandler()).handle(command, output);
+            } catch (final Exception e) {
+                output.println(Style.foreground(TextColor.RED), command.name() + ": " + e);
+            } finally {
+                latency.record(System.nanoTime() - start);
+            }
+        }, executor);
+    }
+
+    /**
+     * Returns the latencies of the commands dispatched so far by grammar.
+     */
+    public Map<String, CommandLatency> getLatencies() {
+        return Collections.unmodifiableMap(latencies);
+    }
+
+    public Window getWindow() {
+        return window;
+    }
+
+    public OutputArea getOutputArea() {
+        return window.getOutputArea();
+    }
+
+    /**
+     * Stops reading input and shuts the command executor down. Commands that are running are left to
+     * finish.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (reader != null) {
+            reader.interrupt();
+        }
+        executor.shutdown();
+    }
+
+    private CommandRouter router() {
+        var router = this.router;
+        if (router == null) {
+            synchronized (this) {
+                if (this.router == null) {
+                    this.router = new CommandRouter(routes.values());
+                }
+                router = this.router;
+            }
+        }
+        return router;
+    }
+
+    /**
+     * Reads and dispatches lines until the input ends, tokenizing every one of them into the same bounds,
+     * which are only replaced by larger ones for a line with more tokens than they can hold.
+     */
+    private void read() {
+        final var input = window.getInputArea();
+        var bounds = new int[INITIAL_BOUNDS];
+        while (!closed) {
+            final String line;
+            try {
+                line = input.readLine();
+            } catch (final InterruptedException e) {
+                return;
+            }
+            if (line == null) {
+                return;
+            }
+            if (!closed) {
+                final var start = System.nanoTime();
+                final var count = Tokenizer.tokenize(line, bounds);
+                bounds = fit(line, bounds, count);
+                dispatch(start, line, bounds, count);
+            }
+        }
+    }
+
+    /**
+     * Returns the given bounds if they hold all the tokens of the line, or else larger bounds holding them.
+     */
+    private static int[] fit(final String line, final int[] bounds, final int count) {
+        if (2 * count <= bounds.length) {
+            return bounds;
+        }
+        final var larger = new int[Integer.highestOneBit(2 * count) << 1];
+        Tokenizer.tokenize(line, larger);
+        return larger;
+    }
+
 }
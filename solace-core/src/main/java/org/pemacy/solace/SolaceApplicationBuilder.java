@@ -0,0 +1,130 @@
+package org.pemacy.solace;
+
+import org.pemacy.solace.io.HistoryStore;
+import org.pemacy.solace.ui.SwingUserInterfaceFactory;
+import org.pemacy.solace.ui.UserInterfaceFactory;
+import org.pemacy.solace.ui.output.GridOutputArea;
+import org.pemacy.solace.ui.window.Window;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Builds, starts and shows a {@link SolaceApplication}.
+ * <p>
+ * Loading the AWT toolkit, the look and feel and the fonts takes most of the time before the first frame,
+ * and none of it depends on the application. Unless the JVM is headless, a builder therefore starts
+ * loading them on a thread of its own as soon as it is created, so that they load while the application
+ * bootstraps and configures the builder. The window is created on the event dispatch thread once they are
+ * loaded, and its frame only once it is shown. A builder may also be built on the event dispatch thread,
+ * which then waits for the loading itself.
+ */
+public class SolaceApplicationBuilder {
+
+    private final CompletableFuture<Void> toolkit = GraphicsEnvironment.isHeadless()
+            ? CompletableFuture.completedFuture(null)
+            : CompletableFuture.runAsync(SolaceApplicationBuilder::loadToolkit,
+                    runnable -> Thread.ofPlatform().name("solace-toolkit-loader").daemon().start(runnable));
+
+    private String title = "Solace";
+    private UserInterfaceFactory userInterfaceFactory;
+    private Path historyFile;
+    private ExecutorService commandExecutor;
+    private final Map<String, CommandHandler> commands = new LinkedHashMap<>();
+
+    public SolaceApplicationBuilder title(final String title) {
+        this.title = title;
+        return this;
+    }
+
+    /**
+     * Sets the user interface of the application, which by default is a Swing window.
+     */
+    public SolaceApplicationBuilder userInterfaceFactory(final UserInterfaceFactory userInterfaceFactory) {
+        this.userInterfaceFactory = userInterfaceFactory;
+        return this;
+    }
+
+    /**
+     * Sets the file in which the input history of the default Swing user interface is kept. By default
+     * there is no history.
+     */
+    public SolaceApplicationBuilder historyFile(final Path historyFile) {
+        this.historyFile = historyFile;
+        return this;
+    }
+
+    /**
+     * Sets the executor that runs command handlers, which by default starts a virtual thread per command.
+     */
+    public SolaceApplicationBuilder commandExecutor(final ExecutorService commandExecutor) {
+        this.commandExecutor = commandExecutor;
+        return this;
+    }
+
+    /**
+     * Registers the handler of a command grammar. See {@link Route} for the syntax.
+     */
+    public SolaceApplicationBuilder command(final String grammar, final CommandHandler handler) {
+        commands.put(grammar, handler);
+        return this;
+    }
+
+    /**
+     * Builds and starts the application and shows its window.
+     *
+     * @throws IllegalArgumentException if a command grammar is invalid or two grammars conflict
+     */
+    public SolaceApplication build() {
+        final Window window;
+        if (userInterfaceFactory == null) {
+            final var history = historyFile == null ? null : new HistoryStore(historyFile);
+            window = createOnEventDispatchThread(new SwingUserInterfaceFactory(GridOutputArea::new, history));
+        } else {
+            window = userInterfaceFactory.newWindow();
+        }
+        window.setTitle(title).centerOnScreen();
+
+        final var application = new SolaceApplication(window, commandExecutor != null
+                ? commandExecutor
+                : Executors.newVirtualThreadPerTaskExecutor());
+        commands.forEach(application::register);
+        application.start();
+        window.setVisible(true);
+        return application;
+    }
+
+    private Window createOnEventDispatchThread(final UserInterfaceFactory factory) {
+        try {
+            if (SwingUtilities.isEventDispatchThread()) {
+                toolkit.join();
+                return factory.newWindow();
+            }
+            return toolkit.thenApplyAsync(loaded -> factory.newWindow(), SwingUtilities::invokeLater).join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Loads what the first frame needs: the native toolkit, the defaults of the look and feel, and the
+     * scaler of the font used by the input and output areas.
+     */
+    private static void loadToolkit() {
+        Toolkit.getDefaultToolkit();
+        UIManager.getLookAndFeelDefaults();
+        new Font(Font.MONOSPACED, Font.PLAIN, 12).getStringBounds("0", new FontRenderContext(null, true, true));
+    }
+
+}
@@ -0,0 +1,55 @@
+package org.pemacy.solace;
+
+/**
+ * A view of part of a character sequence, which shares the characters rather than copying them. Slices of
+ * a {@link String} stay valid for as long as they are referenced.
+ */
+public final class TextSlice implements CharSequence {
+
+    private final CharSequence text;
+    private final int start;
+    private final int end;
+
+    public TextSlice(final CharSequence text, final int start, final int end) {
+        if (start < 0 || end < start || end > text.length()) {
+            throw new IndexOutOfBoundsException("Slice " + start + ".." + end + " of " + text.length());
+        }
+        this.text = text;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return text.charAt(start + index);
+    }
+
+    @Override
+    public TextSlice subSequence(final int start, final int end) {
+        if (start < 0 || end < start || end > length()) {
+            throw new IndexOutOfBoundsException("Slice " + start + ".." + end + " of " + length());
+        }
+        return new TextSlice(text, this.start + start, this.start + end);
+    }
+
+    /**
+     * Returns whether the slice holds the same characters as the given sequence.
+     */
+    public boolean contentEquals(final CharSequence other) {
+        return CharSequence.compare(this, other) == 0;
+    }
+
+    @Override
+    public String toString() {
+        return text.subSequence(start, end).toString();
+    }
+
+}
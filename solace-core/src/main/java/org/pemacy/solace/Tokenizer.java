@@ -0,0 +1,56 @@
+package org.pemacy.solace;
+
+/**
+ * Splits a line into tokens without copying or allocating. A token is a run of characters other than
+ * whitespace, or everything between a pair of double quotes; a quote that is not closed runs to the end of
+ * the line. The tokens are described by their bounds in the line, which can be read through a
+ * {@link TextSlice}.
+ */
+public final class Tokenizer {
+
+    private Tokenizer() {
+    }
+
+    /**
+     * Writes the start and end of each token to the bounds, two elements per token, and returns the
+     * number of tokens. If that is more than fit, the bounds hold the first tokens only and the line should
+     * be tokenized again into a larger array.
+     */
+    public static int tokenize(final CharSequence line, final int[] bounds) {
+        final var length = line.length();
+        var count = 0;
+        var i = 0;
+        while (true) {
+            while (i < length && Character.isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            if (i == length) {
+                return count;
+            }
+            final int start;
+            final int end;
+            if (line.charAt(i) == '"') {
+                start = ++i;
+                while (i < length && line.charAt(i) != '"') {
+                    i++;
+                }
+                end = i;
+                if (i < length) {
+                    i++;
+                }
+            } else {
+                start = i;
+                while (i < length && !Character.isWhitespace(line.charAt(i))) {
+                    i++;
+                }
+                end = i;
+            }
+            if (2 * count + 1 < bounds.length) {
+                bounds[2 * count] = start;
+                bounds[2 * count + 1] = end;
+            }
+            count++;
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+package org.pemacy.solace;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CommandRouterTest {
+
+    private static final CommandHandler NOTHING = (command, output) -> { };
+
+    private final Route rename = new Route("user <id> rename <name>", NOTHING);
+    private final Route show = new Route("user <id>", NOTHING);
+    private final Route list = new Route("user list", NOTHING);
+    private final Route listAll = new Route("user list all", NOTHING);
+    private final Route help = new Route("help", NOTHING);
+    private final CommandRouter router = new CommandRouter(List.of(rename, show, list, listAll, help));
+
+    @Test
+    void prefersALiteralOverAParameter() {
+        assertEquals(list, route("user list"));
+        assertEquals(listAll, route("user list all"));
+        assertEquals(show, route("user 42"));
+    }
+
+    @Test
+    void backtracksToAParameterWhenTheLiteralLeadsNowhere() {
+        assertEquals(rename, route("user list rename bob"));
+        assertEquals(Map.of("id", "list", "name", "bob"), bind(rename, "user list rename bob"));
+        assertEquals(rename, route("user 42 rename \"Bob Smith\""));
+        assertEquals(Map.of("id", "42", "name", "Bob Smith"), bind(rename, "user 42 rename \"Bob Smith\""));
+    }
+
+    @Test
+    void usesTheLongestGrammarALineStartsWith() {
+        assertEquals(help, route("help me now"));
+        assertEquals(list, route("user list everything"));
+        assertEquals(show, route("user 42 rename"));
+    }
+
+    @Test
+    void matchesNothingElse() {
+        assertNull(route("users"));
+        assertNull(route("hel"));
+        assertNull(route(""));
+    }
+
+    @Test
+    void rejectsGrammarsThatDifferOnlyInParameterNames() {
+        final var conflicting = new Route("user <name>", NOTHING);
+        assertThrows(IllegalArgumentException.class, () -> new CommandRouter(List.of(show, conflicting)));
+    }
+
+    private Route route(final String line) {
+        final var bounds = new int[32];
+        return router.route(line, bounds, Tokenizer.tokenize(line, bounds));
+    }
+
+    private static Map<String, String> bind(final Route route, final String line) {
+        final var bounds = new int[32];
+        Tokenizer.tokenize(line, bounds);
+        final var bound = new HashMap<String, String>();
+        route.bind(line, bounds).forEach((name, value) -> bound.put(name, value.toString()));
+        return bound;
+    }
+
+}
@@ -0,0 +1,41 @@
+package org.pemacy.solace;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenizerTest {
+
+    @Test
+    void splitsAtWhitespace() {
+        assertEquals(List.of("user", "42", "rename"), tokens("  user\t42 \n rename "));
+        assertEquals(List.of(), tokens(" \t "));
+    }
+
+    @Test
+    void keepsQuotedTextTogether() {
+        assertEquals(List.of("say", "hello  world", "", "x"), tokens("say \"hello  world\" \"\" x"));
+        assertEquals(List.of("say", "unclosed rest"), tokens("say \"unclosed rest"));
+    }
+
+    @Test
+    void countsTokensThatDoNotFit() {
+        final var bounds = new int[4];
+        assertEquals(3, Tokenizer.tokenize("a bb ccc", bounds));
+        assertEquals(List.of(0, 1, 2, 4), List.of(bounds[0], bounds[1], bounds[2], bounds[3]));
+    }
+
+    private static List<String> tokens(final String line) {
+        final var bounds = new int[32];
+        final var count = Tokenizer.tokenize(line, bounds);
+        final var tokens = new ArrayList<String>();
+        for (var i = 0; i < count; i++) {
+            tokens.add(new TextSlice(line, bounds[2 * i], bounds[2 * i + 1]).toString());
+        }
+        return tokens;
+    }
+
+}
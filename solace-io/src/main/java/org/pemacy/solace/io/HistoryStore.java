@@ -0,0 +1,277 @@
+package org.pemacy.solace.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A persistent, append-only history of input lines. Entries are stored as UTF-8 lines in a data file,
+ * next to an index file holding the byte offset of every entry as a {@code long}. Both files are
+ * memory-mapped when the store is opened and nothing is read until an entry is asked for, so opening a
+ * history of a million entries costs the same as opening an empty one.
+ * <p>
+ * Entries are appended through the channel into a mapping that is larger than the data, so the data
+ * file is only mapped again when it grows past the mapped size, and only by {@link #add}. The file is
+ * padded with zeros up to that size while open and trimmed on {@link #close}.
+ * <p>
+ * An entry equal to the one before it is not stored again. An index that is behind the data file, for
+ * example after a crash, is completed from the data on open, and a last entry without its line
+ * terminator is dropped along with any padding.
+ */
+public class HistoryStore implements AutoCloseable {
+
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final int SEARCH_CHUNK_BYTES = 1 << 16;
+    private static final int MIN_MAPPED_BYTES = 1 << 16;
+
+    private final FileChannel data;
+    private final FileChannel index;
+    private final MappedByteBuffer indexed;
+    private final int indexedCount;
+    private MappedByteBuffer mapped;
+    private long dataSize;
+
+    private long[] appended = new long[16];
+    private int appendedCount;
+    private final ByteBuffer offsetBuffer = ByteBuffer.allocate(Long.BYTES);
+    private byte[] entry = new byte[256];
+    private byte[] chunk = new byte[SEARCH_CHUNK_BYTES];
+    private String last;
+
+    public HistoryStore(final Path file) {
+        try {
+            this.data = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.index = FileChannel.open(file.resolveSibling(file.getFileName() + INDEX_SUFFIX),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            dataSize = terminatedSize();
+            data.truncate(dataSize);
+            mapData();
+
+            var count = (int) Math.min(index.size() / Long.BYTES, Integer.MAX_VALUE);
+            while (count > 0 && readIndex(count - 1) >= dataSize) {
+                count--;
+            }
+            index.truncate((long) count * Long.BYTES);
+            this.indexedCount = count;
+            this.indexed = index.map(FileChannel.MapMode.READ_ONLY, 0, (long) count * Long.BYTES);
+
+            var offset = count == 0 ? 0 : (int) readIndex(count - 1);
+            if (count > 0) {
+                offset = endOf(offset) + 1;
+            }
+            while (offset < dataSize) {
+                append(offset);
+                offset = endOf(offset) + 1;
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Adds a line to the end of the history, unless it is blank or equal to the last entry. Line
+     * terminators within the line are replaced with spaces. This writes to the files, so call it off the
+     * event dispatch thread.
+     */
+    public synchronized HistoryStore add(final String line) {
+        final var text = line.replace('\r', ' ').replace('\n', ' ');
+        if (last == null && size() > 0) {
+            last = get(size() - 1);
+        }
+        if (text.isBlank() || text.equals(last)) {
+            return this;
+        }
+        final var bytes = (text + '\n').getBytes(StandardCharsets.UTF_8);
+        try {
+            final var buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                data.write(buffer, dataSize + buffer.position());
+            }
+            append(dataSize);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        dataSize += bytes.length;
+        last = text;
+        mapData();
+        return this;
+    }
+
+    public synchronized int size() {
+        return indexedCount + appendedCount;
+    }
+
+    public synchronized String get(final int number) {
+        if (number < 0 || number >= size()) {
+            throw new IndexOutOfBoundsException("Entry " + number + " of " + size());
+        }
+        final var from = offset(number);
+        final var length = (int) entryLength(number);
+        if (length > entry.length) {
+            entry = new byte[Math.max(length, entry.length << 1)];
+        }
+        mapped.get((int) from, entry, 0, length);
+        return new String(entry, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of the latest entry before the given one that contains the query, or -1 if there
+     * is none. The comparison is case-sensitive and done on the encoded bytes, so the entries that are
+     * passed over are never decoded.
+     */
+    public synchronized int search(final String query, final int before) {
+        final var end = Math.min(before, size());
+        if (query.isEmpty() || end <= 0) {
+            return end - 1;
+        }
+        final var pattern = query.getBytes(StandardCharsets.UTF_8);
+        if (chunk.length < pattern.length << 1) {
+            chunk = new byte[pattern.length << 1];
+        }
+        // Scan backwards a chunk at a time, overlapping chunks so a match across their border is found
+        var to = (int) (offset(end - 1) + entryLength(end - 1));
+        while (to >= pattern.length) {
+            final var from = Math.max(0, to - chunk.length);
+            mapped.get(from, chunk, 0, to - from);
+            for (var i = to - from - pattern.length; i >= 0; i--) {
+                if (chunk[i] == pattern[0] && matches(i, pattern)) {
+                    return entryAt(from + i);
+                }
+            }
+            if (from == 0) {
+                break;
+            }
+            to = from + pattern.length - 1;
+        }
+        return -1;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            data.truncate(dataSize);
+            data.close();
+            index.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean matches(final int position, final byte[] pattern) {
+        for (var i = 1; i < pattern.length; i++) {
+            if (chunk[position + i] != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of the entry holding the given byte offset.
+     */
+    private int entryAt(final long position) {
+        var low = 0;
+        var high = size() - 1;
+        while (low < high) {
+            final var middle = (low + high + 1) >>> 1;
+            if (offset(middle) <= position) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private long entryLength(final int number) {
+        return (number + 1 < size() ? offset(number + 1) : dataSize) - 1 - offset(number);
+    }
+
+    private long offset(final int number) {
+        return number < indexedCount ? indexed.getLong(number * Long.BYTES) : appended[number - indexedCount];
+    }
+
+    /**
+     * Records the offset of a new entry both in memory and at the end of the index file.
+     */
+    private void append(final long offset) throws IOException {
+        final var buffer = offsetBuffer.clear().putLong(offset).flip();
+        final var position = (long) (indexedCount + appendedCount) * Long.BYTES;
+        while (buffer.hasRemaining()) {
+            index.write(buffer, position + buffer.position());
+        }
+        if (appendedCount == appended.length) {
+            appended = Arrays.copyOf(appended, appended.length << 1);
+        }
+        appended[appendedCount++] = offset;
+    }
+
+    private long readIndex(final int number) throws IOException {
+        final var buffer = ByteBuffer.allocate(Long.BYTES);
+        final var position = (long) number * Long.BYTES;
+        while (buffer.hasRemaining()) {
+            index.read(buffer, position + buffer.position());
+        }
+        return buffer.getLong(0);
+    }
+
+    /**
+     * Returns the size of the data file without a last entry that is missing its line terminator, or the
+     * padding left by a store that was not closed. The tail is read through the channel so the file can be
+     * truncated before it is mapped.
+     */
+    private long terminatedSize() throws IOException {
+        final var buffer = ByteBuffer.allocate(4096);
+        var end = data.size();
+        while (end > 0) {
+            final var from = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - from));
+            while (buffer.hasRemaining()) {
+                data.read(buffer, from + buffer.position());
+            }
+            for (var i = buffer.limit() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return from + i + 1;
+                }
+            }
+            end = from;
+        }
+        return 0;
+    }
+
+    private int endOf(final int offset) {
+        var position = offset;
+        while (mapped.get(position) != '\n') {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Maps the data file again, twice as large as its data, once the data has grown past the mapped size.
+     * Mapping beyond the end of the file extends it with zeros.
+     */
+    private void mapData() {
+        if (mapped != null && mapped.capacity() >= dataSize) {
+            return;
+        }
+        if (dataSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("History file too large: " + dataSize + " bytes");
+        }
+        try {
+            final var size = Math.min(Integer.MAX_VALUE, Math.max(MIN_MAPPED_BYTES, dataSize << 1));
+            mapped = data.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package org.pemacy.solace.io;
+
+import org.pemacy.solace.Style;
+import org.pemacy.solace.Writer;
+
+/**
+ * A writer that records everything printed to a {@link TranscriptRecorder} before passing it on.
+ */
+public class RecordingWriter<Self> implements Writer<Self> {
+
+    private final Writer<Self> delegate;
+    private final TranscriptRecorder recorder;
+
+    public RecordingWriter(final Writer<Self> delegate, final TranscriptRecorder recorder) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Writer<Self> print(final Object content) {
+        final var text = String.valueOf(content);
+        recorder.recordOutput(text);
+        delegate.print(text);
+        return this;
+    }
+
+    @Override
+    public Writer<Self> print(final char[] buffer, final int offset, final int length) {
+        return print(new String(buffer, offset, length));
+    }
+
+    @Override
+    public Writer<Self> print(final Style style, final Object content) {
+        final var text = String.valueOf(content);
+        recorder.recordOutput(text);
+        delegate.print(style, text);
+        return this;
+    }
+
+    public TranscriptRecorder getRecorder() {
+        return recorder;
+    }
+
+    @Override
+    public Self getSelf() {
+        return delegate.getSelf();
+    }
+
+}
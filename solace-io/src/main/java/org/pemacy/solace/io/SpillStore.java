@@ -0,0 +1,307 @@
+package org.pemacy.solace.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An append-only store of text lines on disk, for history that should not be held in memory. Text is
+ * encoded as UTF-8 into a series of fixed-size memory-mapped segment files, so writing is a copy into the
+ * page cache and reading a line pages in only the part of a segment that holds it.
+ * <p>
+ * Only the byte offset of every {@value #INDEX_INTERVAL}th line is kept on the heap. A line is found by
+ * scanning forward from the closest indexed line, so the index stays small however much is stored.
+ * <p>
+ * Every segment written since the store was opened or last cleared stays mapped, so a store maps
+ * {@link #getByteCount()} rounded up to whole segments of address space. The mapped pages are backed by
+ * the segment files rather than the heap, and the operating system evicts them under memory pressure.
+ * Clearing the store releases all segments but the first.
+ * <p>
+ * Each store writes its segments to a directory of its own, created inside the given one, so stores
+ * opened on the same directory never share files. Closing the store deletes that directory. So does the
+ * exit of the JVM, or the store becoming unreachable, if it was never closed.
+ */
+public class SpillStore implements AutoCloseable {
+
+    public static final int DEFAULT_SEGMENT_BYTES = 64 << 20;
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private static final int INDEX_INTERVAL = 256;
+    private static final String DIRECTORY_PREFIX = "spill-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final Cleaner.Cleanable cleanable;
+    private int[] limits = new int[16];
+
+    private long[] index = new long[64];
+    private long lines;
+    private boolean open;
+    private int segment;
+    private long bytes;
+    private byte[] line = new byte[256];
+    private boolean closed;
+
+    public SpillStore(final Path directory) {
+        this(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    public SpillStore(final Path directory, final int segmentBytes) {
+        if (segmentBytes < 16) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentBytes);
+        }
+        this.segmentBytes = segmentBytes;
+        try {
+            this.directory = Files.createTempDirectory(Files.createDirectories(directory), DIRECTORY_PREFIX);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.directory.toFile().deleteOnExit();
+        // The segments are only reachable through the store, and registering them rather than the store
+        // keeps the store from escaping its constructor
+        this.cleanable = CLEANER.register(segments, new Deletion(this.directory));
+    }
+
+    /**
+     * @throws IllegalStateException if the store is closed
+     */
+    public synchronized SpillStore append(final CharSequence text) {
+        if (closed) {
+            throw new IllegalStateException("Spill store is closed");
+        }
+        final var length = text.length();
+        var from = 0;
+        while (from < length) {
+            var to = from;
+            while (to < length && text.charAt(to) != '\n') {
+                to++;
+            }
+            if (to < length) {
+                to++;
+            }
+            encode(CharBuffer.wrap(text, from, to));
+            if (text.charAt(to - 1) == '\n') {
+                lines++;
+                open = false;
+                if (lines % INDEX_INTERVAL == 0) {
+                    addIndex(position());
+                }
+            } else {
+                open = true;
+            }
+            from = to;
+        }
+        return this;
+    }
+
+    /**
+     * Returns the number of lines stored, including a last line that has not been terminated.
+     */
+    public synchronized long getLineCount() {
+        return open ? lines + 1 : lines;
+    }
+
+    /**
+     * Returns the number of bytes of UTF-8 written, which is also a close estimate of the number of
+     * characters for mostly ASCII output.
+     */
+    public synchronized long getByteCount() {
+        return bytes;
+    }
+
+    /**
+     * Returns the directory of this store's segment files.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Returns the given line without its line terminator.
+     */
+    public synchronized String readLine(final long number) {
+        if (number < 0 || number >= getLineCount()) {
+            throw new IndexOutOfBoundsException("Line " + number + " of " + getLineCount());
+        }
+        final var end = position();
+        var position = number < INDEX_INTERVAL ? 0 : normalize(index[(int) (number / INDEX_INTERVAL) - 1]);
+        for (var skip = number % INDEX_INTERVAL; skip > 0; ) {
+            if (byteAt(position) == '\n') {
+                skip--;
+            }
+            position = next(position);
+        }
+        var length = 0;
+        while (position != end) {
+            final var b = byteAt(position);
+            if (b == '\n') {
+                break;
+            }
+            if (length == line.length) {
+                line = Arrays.copyOf(line, line.length << 1);
+            }
+            line[length++] = b;
+            position = next(position);
+        }
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Forgets all stored lines. The first segment is kept and written over, and the others are released
+     * and their files deleted. Mapped memory is returned once the buffers are collected.
+     */
+    public synchronized void clear() {
+        lines = 0;
+        open = false;
+        segment = 0;
+        bytes = 0;
+        if (segments.isEmpty()) {
+            return;
+        }
+        segments.get(0).clear();
+        try {
+            for (var number = segments.size() - 1; number > 0; number--) {
+                segments.remove(number);
+                Files.deleteIfExists(segmentFile(number));
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Releases the segments and deletes their files along with the store's directory. Mapped memory is
+     * returned once the buffers are collected.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        clear();
+        segments.clear();
+        cleanable.clean();
+    }
+
+    private void encode(final CharBuffer text) {
+        if (segments.isEmpty()) {
+            map(0);
+        }
+        encoder.reset();
+        while (true) {
+            final var buffer = segments.get(segment);
+            final var before = buffer.position();
+            final var result = encoder.encode(text, buffer, true);
+            bytes += buffer.position() - before;
+            if (!result.isOverflow()) {
+                return;
+            }
+            limits[segment] = buffer.position();
+            segment++;
+            if (segment == segments.size()) {
+                map(segment);
+            } else {
+                segments.get(segment).clear();
+            }
+        }
+    }
+
+    private void map(final int number) {
+        final var file = segmentFile(number);
+        file.toFile().deleteOnExit();
+        try (final var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (number == limits.length) {
+            limits = Arrays.copyOf(limits, limits.length << 1);
+        }
+    }
+
+    private Path segmentFile(final int number) {
+        return directory.resolve(String.format("%06d%s", number, SEGMENT_SUFFIX));
+    }
+
+    private void addIndex(final long position) {
+        final var entry = (int) (lines / INDEX_INTERVAL) - 1;
+        if (entry == index.length) {
+            index = Arrays.copyOf(index, index.length << 1);
+        }
+        index[entry] = position;
+    }
+
+    /**
+     * Returns the current write position as a segment number in the high bits and an offset within it in
+     * the low bits.
+     */
+    private long position() {
+        return segments.isEmpty() ? 0 : (long) segment << 32 | segments.get(segment).position();
+    }
+
+    private byte byteAt(final long position) {
+        return segments.get((int) (position >>> 32)).get((int) position);
+    }
+
+    private long next(final long position) {
+        return normalize(position + 1);
+    }
+
+    /**
+     * Moves a position at the end of a full segment to the start of the next one.
+     */
+    private long normalize(final long position) {
+        final var number = (int) (position >>> 32);
+        if (number < segment && (int) position >= limits[number]) {
+            return (long) (number + 1) << 32;
+        }
+        return position;
+    }
+
+    /**
+     * Deletes the segment files and the directory of a store. It holds nothing of the store itself, so
+     * that it can run once the store has become unreachable.
+     */
+    private record Deletion(Path directory) implements Runnable {
+
+        @Override
+        public void run() {
+            try {
+                try (final var files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+                    for (final var file : files) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+                Files.deleteIfExists(directory);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+    }
+
+}
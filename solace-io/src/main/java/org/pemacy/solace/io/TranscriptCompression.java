@@ -0,0 +1,11 @@
+package org.pemacy.solace.io;
+
+/**
+ * How the frames of a transcript are compressed.
+ */
+public enum TranscriptCompression {
+
+    NONE,
+    DEFLATE
+
+}
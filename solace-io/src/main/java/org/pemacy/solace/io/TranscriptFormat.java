@@ -0,0 +1,48 @@
+package org.pemacy.solace.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The layout of a transcript file. A header of {@value #HEADER_BYTES} bytes holds the magic number, the
+ * format version, the compression and the wall-clock start of the session in nanoseconds since the epoch.
+ * It is followed by frames, each a raw length and a stored length followed by the stored bytes, which are
+ * compressed unless both lengths are equal.
+ * <p>
+ * A decompressed frame is a sequence of records: a kind byte, the nanoseconds since the previous record
+ * as a variable-length integer, the length of the text in bytes as a variable-length integer, and the text
+ * in UTF-8.
+ */
+final class TranscriptFormat {
+
+    static final int MAGIC = 0x534c5452;
+    static final byte VERSION = 1;
+    static final int HEADER_BYTES = 14;
+    static final int FRAME_HEADER_BYTES = 8;
+
+    static final byte OUTPUT = 1;
+    static final byte INPUT = 2;
+
+    private TranscriptFormat() {
+    }
+
+    static void putVarLong(final ByteBuffer buffer, final long value) {
+        var remaining = value;
+        while ((remaining & ~0x7fL) != 0) {
+            buffer.put((byte) (remaining & 0x7f | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    static long getVarLong(final ByteBuffer buffer) {
+        var value = 0L;
+        for (var shift = 0; ; shift += 7) {
+            final var b = buffer.get();
+            value |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+}
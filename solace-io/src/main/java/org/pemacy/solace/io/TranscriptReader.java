@@ -0,0 +1,157 @@
+package org.pemacy.solace.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a transcript written by a {@link TranscriptRecorder}, one record at a time. The file is
+ * memory-mapped in windows of up to {@value #WINDOW_BYTES} bytes, and each frame is copied or inflated
+ * into a reused buffer, so reading allocates nothing but the text of each record.
+ */
+public class TranscriptReader implements AutoCloseable {
+
+    private static final long WINDOW_BYTES = 1L << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private final TranscriptCompression compression;
+    private final Instant start;
+    private final Inflater inflater = new Inflater(true);
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+    private ByteBuffer frame = ByteBuffer.allocate(0);
+
+    private boolean input;
+    private long nanos;
+    private String text;
+
+    public TranscriptReader(final Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        if (size < TranscriptFormat.HEADER_BYTES) {
+            channel.close();
+            throw new IOException("Not a transcript: " + file);
+        }
+        map(0, TranscriptFormat.HEADER_BYTES);
+        if (window.getInt() != TranscriptFormat.MAGIC || window.get() != TranscriptFormat.VERSION) {
+            channel.close();
+            throw new IOException("Not a transcript or unsupported version: " + file);
+        }
+        final var compressions = TranscriptCompression.values();
+        final var ordinal = window.get();
+        if (ordinal < 0 || ordinal >= compressions.length) {
+            channel.close();
+            throw new IOException("Corrupt transcript, unknown compression " + ordinal + ": " + file);
+        }
+        this.compression = compressions[ordinal];
+        final var startNanos = window.getLong();
+        this.start = Instant.ofEpochSecond(startNanos / 1_000_000_000L, startNanos % 1_000_000_000L);
+        this.position = TranscriptFormat.HEADER_BYTES;
+    }
+
+    /**
+     * Advances to the next record.
+     *
+     * @return false at the end of the transcript
+     */
+    public boolean next() throws IOException {
+        if (!frame.hasRemaining() && !readFrame()) {
+            return false;
+        }
+        input = frame.get() == TranscriptFormat.INPUT;
+        nanos += TranscriptFormat.getVarLong(frame);
+        final var length = (int) TranscriptFormat.getVarLong(frame);
+        text = new String(frame.array(), frame.position(), length, StandardCharsets.UTF_8);
+        frame.position(frame.position() + length);
+        return true;
+    }
+
+    public boolean isInput() {
+        return input;
+    }
+
+    /**
+     * Returns the time of the current record in nanoseconds since the start of the session.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public Instant getStart() {
+        return start;
+    }
+
+    public TranscriptCompression getCompression() {
+        return compression;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        channel.close();
+    }
+
+    private boolean readFrame() throws IOException {
+        if (position + TranscriptFormat.FRAME_HEADER_BYTES > size) {
+            return false;
+        }
+        map(position, TranscriptFormat.FRAME_HEADER_BYTES);
+        final var rawLength = window.getInt((int) (position - windowStart));
+        final var storedLength = window.getInt((int) (position - windowStart) + 4);
+        position += TranscriptFormat.FRAME_HEADER_BYTES;
+        if (position + storedLength > size) {
+            throw new IOException("Truncated transcript frame at " + position);
+        }
+        map(position, storedLength);
+        final var stored = window.slice((int) (position - windowStart), storedLength);
+        position += storedLength;
+
+        if (frame.capacity() < rawLength) {
+            frame = ByteBuffer.allocate(Math.max(rawLength, frame.capacity() << 1));
+        }
+        frame.clear().limit(rawLength);
+        if (storedLength == rawLength) {
+            frame.put(stored);
+        } else {
+            inflater.reset();
+            inflater.setInput(stored);
+            try {
+                while (frame.hasRemaining() && !inflater.finished()) {
+                    if (inflater.inflate(frame) == 0 && inflater.needsInput()) {
+                        throw new IOException("Corrupt transcript frame");
+                    }
+                }
+            } catch (final DataFormatException e) {
+                throw new IOException("Corrupt transcript frame", e);
+            }
+        }
+        frame.flip();
+        return frame.hasRemaining();
+    }
+
+    /**
+     * Makes sure the given range of the file is inside the mapped window.
+     */
+    private void map(final long from, final int length) throws IOException {
+        if (window != null && from >= windowStart && from + length <= windowStart + window.capacity()) {
+            return;
+        }
+        windowStart = from;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(size - from, Math.max(length, WINDOW_BYTES)));
+    }
+
+}
@@ -0,0 +1,255 @@
+package org.pemacy.solace.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.Deflater;
+
+/**
+ * Records the output and input of a console session to a compact binary transcript, described by
+ * {@link TranscriptFormat}. Recording only timestamps the text and queues it; a committer thread encodes
+ * everything queued into frames of up to {@value #FRAME_BYTES} bytes and writes each frame with a single
+ * call, optionally forcing it to disk, so the cost of a write is shared by every record in the frame.
+ * <p>
+ * Output is usually recorded by wrapping a writer in a {@link RecordingWriter}, and input by adding
+ * {@link #recordInput} as a line listener of the input area.
+ */
+public class TranscriptRecorder implements AutoCloseable {
+
+    private static final int FRAME_BYTES = 1 << 16;
+    private static final long CLOSING_PARK_NANOS = 100_000;
+
+    private final FileChannel channel;
+    private final TranscriptCompression compression;
+    private final boolean sync;
+    private final long startNanos = System.nanoTime();
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger recording = new AtomicInteger();
+    private final Thread committer;
+    private final ByteBuffer header = ByteBuffer.allocate(TranscriptFormat.FRAME_HEADER_BYTES);
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+
+    private ByteBuffer frame = ByteBuffer.allocate(FRAME_BYTES);
+    private byte[] compressed = new byte[FRAME_BYTES];
+    private long previousNanos;
+
+    private volatile long records;
+    private volatile long frames;
+    private volatile long bytesWritten;
+
+    private volatile boolean committing;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    private TranscriptRecorder(final Path file, final TranscriptCompression compression, final boolean sync)
+            throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.compression = compression;
+        this.sync = sync;
+
+        final var start = Instant.now();
+        final var fileHeader = ByteBuffer.allocate(TranscriptFormat.HEADER_BYTES)
+                .putInt(TranscriptFormat.MAGIC)
+                .put(TranscriptFormat.VERSION)
+                .put((byte) compression.ordinal())
+                .putLong(start.getEpochSecond() * 1_000_000_000L + start.getNano())
+                .flip();
+        while (fileHeader.hasRemaining()) {
+            channel.write(fileHeader);
+        }
+        bytesWritten = TranscriptFormat.HEADER_BYTES;
+
+        this.committer = new Thread(this::commit, "solace-transcript-recorder");
+        committer.setDaemon(true);
+    }
+
+    public static TranscriptRecorder open(final Path file) throws IOException {
+        return open(file, TranscriptCompression.DEFLATE, false);
+    }
+
+    /**
+     * Creates or truncates the transcript file and starts recording to it.
+     *
+     * @param sync whether each frame is forced to the storage device before the next one is written
+     */
+    public static TranscriptRecorder open(final Path file, final TranscriptCompression compression,
+            final boolean sync) throws IOException {
+        final var recorder = new TranscriptRecorder(file, compression, sync);
+        recorder.committer.start();
+        return recorder;
+    }
+
+    public void recordOutput(final CharSequence text) {
+        record(TranscriptFormat.OUTPUT, text);
+    }
+
+    public void recordInput(final CharSequence line) {
+        record(TranscriptFormat.INPUT, line);
+    }
+
+    /**
+     * Stops recording and waits for everything recorded so far to be written. A record racing with this
+     * call is either written or rejected, never dropped.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(committer);
+        try {
+            committer.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        deflater.end();
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    public TranscriptCompression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Returns the number of records encoded so far, which is exact once the recorder is closed.
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private void record(final byte kind, final CharSequence text) {
+        // Announced before closed is read, so the committer cannot finish while this record is on its way
+        recording.incrementAndGet();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Recorder is closed");
+            }
+            if (failure != null) {
+                throw new UncheckedIOException(failure);
+            }
+            queue.offer(new Entry(kind, System.nanoTime(), text.toString()));
+        } finally {
+            recording.decrementAndGet();
+        }
+        if (!committing) {
+            LockSupport.unpark(committer);
+        }
+    }
+
+    private void commit() {
+        previousNanos = startNanos;
+        try {
+            while (true) {
+                committing = true;
+                var entry = queue.poll();
+                if (entry == null) {
+                    committing = false;
+                    // Once closed with no record in flight, nothing can be queued after the poll below
+                    final var closing = closed;
+                    final var finished = closing && recording.get() == 0;
+                    entry = queue.poll();
+                    if (entry == null) {
+                        writeFrame();
+                        if (finished) {
+                            return;
+                        }
+                        if (closing) {
+                            LockSupport.parkNanos(this, CLOSING_PARK_NANOS);
+                        } else {
+                            LockSupport.park(this);
+                        }
+                        continue;
+                    }
+                    committing = true;
+                }
+                do {
+                    encode(entry);
+                } while (frame.position() < FRAME_BYTES && (entry = queue.poll()) != null);
+                if (frame.position() >= FRAME_BYTES) {
+                    writeFrame();
+                }
+            }
+        } catch (final IOException e) {
+            failure = e;
+            queue.clear();
+        }
+    }
+
+    private void encode(final Entry entry) {
+        final var text = entry.text().getBytes(StandardCharsets.UTF_8);
+        final var required = 1 + 10 + 5 + text.length;
+        if (frame.remaining() < required) {
+            final var grown = ByteBuffer.allocate(Math.max(frame.capacity() << 1, frame.position() + required));
+            frame = grown.put(frame.flip());
+        }
+        frame.put(entry.kind());
+        TranscriptFormat.putVarLong(frame, Math.max(0, entry.nanos() - previousNanos));
+        TranscriptFormat.putVarLong(frame, text.length);
+        frame.put(text);
+        previousNanos = Math.max(previousNanos, entry.nanos());
+        records++;
+    }
+
+    private void writeFrame() throws IOException {
+        if (frame.position() == 0) {
+            return;
+        }
+        final var rawLength = frame.position();
+        var stored = ByteBuffer.wrap(frame.array(), 0, rawLength);
+        if (compression == TranscriptCompression.DEFLATE) {
+            final var compressedLength = deflate(rawLength);
+            if (compressedLength < rawLength) {
+                stored = ByteBuffer.wrap(compressed, 0, compressedLength);
+            }
+        }
+        final var storedLength = stored.remaining();
+        header.clear().putInt(rawLength).putInt(storedLength).flip();
+        final var buffers = new ByteBuffer[]{header, stored};
+        while (stored.hasRemaining()) {
+            channel.write(buffers);
+        }
+        if (sync) {
+            channel.force(false);
+        }
+        bytesWritten += TranscriptFormat.FRAME_HEADER_BYTES + storedLength;
+        frames++;
+        frame.clear();
+    }
+
+    private int deflate(final int rawLength) {
+        deflater.reset();
+        deflater.setInput(frame.array(), 0, rawLength);
+        deflater.finish();
+        var length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length << 1);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        return length;
+    }
+
+    private record Entry(byte kind, long nanos, String text) {
+    }
+
+}
@@ -0,0 +1,116 @@
+package org.pemacy.solace.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HistoryStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepsEntriesAcrossReopening() {
+        final var file = directory.resolve("history");
+        try (final var store = new HistoryStore(file)) {
+            store.add("first").add("first").add(" ").add("second\nline");
+        }
+        try (final var store = new HistoryStore(file)) {
+            assertEquals(2, store.size());
+            assertEquals("first", store.get(0));
+            assertEquals("second line", store.get(1));
+        }
+    }
+
+    @Test
+    void trimsThePaddingOnClose() throws IOException {
+        final var file = directory.resolve("history");
+        try (final var store = new HistoryStore(file)) {
+            store.add("one").add("two");
+        }
+        assertEquals("one\ntwo\n", Files.readString(file));
+    }
+
+    @Test
+    void dropsALastEntryWithoutItsTerminator() throws IOException {
+        final var file = directory.resolve("history");
+        try (final var store = new HistoryStore(file)) {
+            store.add("kept");
+        }
+        Files.writeString(file, "torn", StandardOpenOption.APPEND);
+        appendIndex(file, 5);
+
+        try (final var store = new HistoryStore(file)) {
+            assertEquals(1, store.size());
+            assertEquals("kept", store.get(0));
+            store.add("next");
+            assertEquals("next", store.get(1));
+        }
+        assertEquals("kept\nnext\n", Files.readString(file));
+        assertEquals(2 * Long.BYTES, Files.size(index(file)));
+    }
+
+    @Test
+    void completesAnIndexBehindTheData() throws IOException {
+        final var file = directory.resolve("history");
+        try (final var store = new HistoryStore(file)) {
+            store.add("one");
+        }
+        Files.writeString(file, "two\nthree\n", StandardOpenOption.APPEND);
+
+        try (final var store = new HistoryStore(file)) {
+            assertEquals(3, store.size());
+            assertEquals("two", store.get(1));
+            assertEquals("three", store.get(2));
+            assertEquals(1, store.search("tw", 3));
+        }
+    }
+
+    @Test
+    void recoversAStoreThatWasNotClosed() {
+        final var file = directory.resolve("history");
+        final var store = new HistoryStore(file);
+        store.add("one").add("two");
+
+        try (final var reopened = new HistoryStore(file)) {
+            assertEquals(2, reopened.size());
+            assertEquals("two", reopened.get(1));
+            reopened.add("three");
+            assertEquals("three", reopened.get(2));
+        }
+    }
+
+    @Test
+    void readsAndSearchesPastTheFirstMapping() {
+        final var file = directory.resolve("history");
+        final var entries = 20_000;
+        try (final var store = new HistoryStore(file)) {
+            for (var i = 0; i < entries; i++) {
+                store.add("entry " + i);
+                assertEquals("entry " + i, store.get(i));
+            }
+            assertEquals(entries, store.size());
+            assertEquals(12_345, store.search("entry 12345", entries));
+            assertEquals(-1, store.search("missing", entries));
+        }
+    }
+
+    private static void appendIndex(final Path file, final long offset) throws IOException {
+        try (final var channel = FileChannel.open(index(file), StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(offset).flip());
+        }
+    }
+
+    private static Path index(final Path file) {
+        return file.resolveSibling(file.getFileName() + ".idx");
+    }
+
+}
@@ -0,0 +1,80 @@
+package org.pemacy.solace.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpillStoreTest {
+
+    private static final int SEGMENT_BYTES = 64;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsLinesBackAcrossSegments() {
+        try (final var store = new SpillStore(directory, SEGMENT_BYTES)) {
+            final var lines = 2_000;
+            for (var i = 0; i < lines; i++) {
+                store.append("line " + i + " grüße 😀\n");
+            }
+            store.append("open ");
+            store.append("line");
+
+            assertTrue(store.getSegmentCount() > 1);
+            assertEquals(lines + 1, store.getLineCount());
+            for (var i = 0; i < lines; i++) {
+                assertEquals("line " + i + " grüße 😀", store.readLine(i));
+            }
+            assertEquals("open line", store.readLine(lines));
+        }
+    }
+
+    @Test
+    void readsALineLongerThanASegment() {
+        try (final var store = new SpillStore(directory, SEGMENT_BYTES)) {
+            final var line = "x".repeat(5 * SEGMENT_BYTES);
+            store.append("first\n").append(line).append("\nlast\n");
+
+            assertEquals("first", store.readLine(0));
+            assertEquals(line, store.readLine(1));
+            assertEquals("last", store.readLine(2));
+        }
+    }
+
+    @Test
+    void releasesAllButTheFirstSegmentWhenCleared() throws IOException {
+        try (final var store = new SpillStore(directory, SEGMENT_BYTES)) {
+            for (var i = 0; i < 100; i++) {
+                store.append("line " + i + "\n");
+            }
+            store.clear();
+
+            assertEquals(1, store.getSegmentCount());
+            assertEquals(0, store.getLineCount());
+            try (final var files = Files.list(store.getDirectory())) {
+                assertEquals(1, files.count());
+            }
+
+            store.append("again\n");
+            assertEquals("again", store.readLine(0));
+        }
+    }
+
+    @Test
+    void deletesItsDirectoryWhenClosed() {
+        final var store = new SpillStore(directory, SEGMENT_BYTES);
+        store.append("line\n".repeat(100));
+        store.close();
+
+        assertFalse(Files.exists(store.getDirectory()));
+    }
+
+}
@@ -0,0 +1,81 @@
+package org.pemacy.solace.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TranscriptReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackWhatWasRecorded() throws IOException {
+        for (final var compression : TranscriptCompression.values()) {
+            final var file = directory.resolve(compression.name());
+            try (final var recorder = TranscriptRecorder.open(file, compression, false)) {
+                recorder.recordOutput("hello\n");
+                recorder.recordInput("ls -l");
+                recorder.recordOutput("grüße 😀\n");
+            }
+
+            try (final var reader = new TranscriptReader(file)) {
+                assertEquals(compression, reader.getCompression());
+                assertTrue(reader.next());
+                assertFalse(reader.isInput());
+                assertEquals("hello\n", reader.getText());
+                assertTrue(reader.next());
+                assertTrue(reader.isInput());
+                assertEquals("ls -l", reader.getText());
+                final var nanos = reader.getNanos();
+                assertTrue(reader.next());
+                assertEquals("grüße 😀\n", reader.getText());
+                assertTrue(reader.getNanos() >= nanos);
+                assertFalse(reader.next());
+            }
+        }
+    }
+
+    @Test
+    void readsRecordsAcrossFrames() throws IOException {
+        final var file = directory.resolve("transcript");
+        final var records = 50_000;
+        final var recorder = TranscriptRecorder.open(file);
+        for (var i = 0; i < records; i++) {
+            recorder.recordOutput("line " + i + "\n");
+        }
+        recorder.close();
+        assertTrue(recorder.getFrames() > 1);
+
+        try (final var reader = new TranscriptReader(file)) {
+            for (var i = 0; i < records; i++) {
+                assertTrue(reader.next());
+                assertEquals("line " + i + "\n", reader.getText());
+            }
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void rejectsAnUnknownCompression() throws IOException {
+        final var file = directory.resolve("transcript");
+        TranscriptRecorder.open(file).close();
+        try (final var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) 0x7f}), 5);
+        }
+
+        final var e = assertThrows(IOException.class, () -> new TranscriptReader(file));
+        assertTrue(e.getMessage().startsWith("Corrupt transcript"));
+    }
+
+}
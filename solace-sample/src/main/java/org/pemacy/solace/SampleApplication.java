@@ -3,9 +3,16 @@ package org.pemacy.solace;
 public class SampleApplication {
 
     public static void main(final String[] args) {
-        final var window = new SolaceApplicationBuilder()
+        final var probe = StartupProbe.start();
+        final var application = new SolaceApplicationBuilder()
                 .title("Solace Sample Application")
+                .command("echo", (command, output) -> output.println(String.join(" ", command.arguments())))
+                .command("exit", (command, output) -> System.exit(0))
                 .build();
+        if (probe != null) {
+            probe.watch(application);
+        }
+        application.getOutputArea().println("Solace sample application. Try \"echo\" or \"exit\".");
     }
 
 }
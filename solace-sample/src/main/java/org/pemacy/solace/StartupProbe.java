@@ -0,0 +1,123 @@
+package org.pemacy.solace;
+
+import org.pemacy.solace.ui.output.GridOutputArea;
+import org.pemacy.solace.ui.output.SwingOutputArea;
+import org.pemacy.solace.ui.window.SwingWindow;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.Document;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures how long the application takes to start: from the launch of the JVM to its window being
+ * shown, and to its first output being displayed. The times are printed to standard error when
+ * {@value #REPORT} is set, and with {@value #EXIT} also set the application exits once they are known, so
+ * a launch can be timed by a script or used as a training run for a class data sharing archive.
+ */
+final class StartupProbe {
+
+    static final String REPORT = "solace.startup.report";
+    static final String EXIT = "solace.startup.exit";
+
+    private final long launchMillis = ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli)
+            .orElse(-1L);
+    private final long mainMillis = System.currentTimeMillis();
+    private final CountDownLatch pending = new CountDownLatch(2);
+    private volatile long windowMillis;
+    private volatile long outputMillis;
+
+    /**
+     * Returns a probe started now, or null if startup is not measured.
+     */
+    static StartupProbe start() {
+        return Boolean.getBoolean(REPORT) || Boolean.getBoolean(EXIT) ? new StartupProbe() : null;
+    }
+
+    /**
+     * Starts watching the window and output area of the application. Must be called before anything is
+     * printed.
+     */
+    void watch(final SolaceApplication application) {
+        SwingUtilities.invokeLater(() -> {
+            if (application.getWindow() instanceof SwingWindow window) {
+                final var frame = window.getFrame();
+                if (frame.isShowing()) {
+                    windowShown();
+                } else {
+                    frame.addWindowListener(new WindowAdapter() {
+
+                        @Override
+                        public void windowOpened(final WindowEvent event) {
+                            windowShown();
+                        }
+
+                    });
+                }
+            } else {
+                windowShown();
+            }
+            final Document document;
+            if (application.getOutputArea() instanceof GridOutputArea outputArea) {
+                document = outputArea.getDocument();
+            } else if (application.getOutputArea() instanceof SwingOutputArea outputArea) {
+                document = outputArea.getTextArea().getDocument();
+            } else {
+                document = null;
+            }
+            if (document != null) {
+                document.addDocumentListener(new DocumentListener() {
+
+                    @Override
+                    public void insertUpdate(final DocumentEvent event) {
+                        document.removeDocumentListener(this);
+                        // Runs after the repaint that the insert has just requested
+                        SwingUtilities.invokeLater(StartupProbe.this::outputShown);
+                    }
+
+                    @Override
+                    public void removeUpdate(final DocumentEvent event) {
+                    }
+
+                    @Override
+                    public void changedUpdate(final DocumentEvent event) {
+                    }
+
+                });
+            } else {
+                outputShown();
+            }
+        });
+        Thread.ofPlatform().name("solace-startup-probe").daemon().start(this::report);
+    }
+
+    private void windowShown() {
+        windowMillis = System.currentTimeMillis();
+        pending.countDown();
+    }
+
+    private void outputShown() {
+        outputMillis = System.currentTimeMillis();
+        pending.countDown();
+    }
+
+    private void report() {
+        try {
+            pending.await();
+        } catch (final InterruptedException e) {
+            return;
+        }
+        final var launch = launchMillis < 0 ? mainMillis : launchMillis;
+        System.err.printf("startup: main=%dms window-visible=%dms first-output=%dms%n", mainMillis - launch,
+                windowMillis - launch, outputMillis - launch);
+        if (Boolean.getBoolean(EXIT)) {
+            System.exit(0);
+        }
+    }
+
+}
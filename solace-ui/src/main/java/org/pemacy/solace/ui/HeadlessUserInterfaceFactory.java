@@ -0,0 +1,30 @@
+package org.pemacy.solace.ui;
+
+import org.pemacy.solace.ui.input.HeadlessInputArea;
+import org.pemacy.solace.ui.output.HeadlessOutputArea;
+import org.pemacy.solace.ui.output.Scrollback;
+import org.pemacy.solace.ui.output.ScrollbackBuilder;
+import org.pemacy.solace.ui.window.HeadlessWindow;
+
+public class HeadlessUserInterfaceFactory implements UserInterfaceFactory {
+
+    private final Scrollback scrollback;
+    private final String[] script;
+
+    public HeadlessUserInterfaceFactory(final String... script) {
+        this(new ScrollbackBuilder().build(), script);
+    }
+
+    public HeadlessUserInterfaceFactory(final Scrollback scrollback, final String... script) {
+        this.scrollback = scrollback;
+        this.script = script.clone();
+    }
+
+    @Override
+    public HeadlessWindow newWindow() {
+        final var outputArea = new HeadlessOutputArea(scrollback);
+        final var inputArea = new HeadlessInputArea(script);
+        return new HeadlessWindow(outputArea, inputArea);
+    }
+
+}
@@ -0,0 +1,16 @@
+package org.pemacy.solace.ui;
+
+/**
+ * What a {@link TranscriptReplayer} pushed through an output area and how long it took.
+ */
+public record ReplayResult(long records, long lines, long chars, long elapsedNanos) {
+
+    public double linesPerSecond() {
+        return elapsedNanos == 0 ? 0 : lines * 1e9 / elapsedNanos;
+    }
+
+    public double charsPerSecond() {
+        return elapsedNanos == 0 ? 0 : chars * 1e9 / elapsedNanos;
+    }
+
+}
@@ -1,29 +1,249 @@
 package org.pemacy.solace.ui.input;
 
+import org.pemacy.solace.io.HistoryStore;
+
 import javax.swing.*;
 import javax.swing.border.CompoundBorder;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.MatteBorder;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import static java.util.Collections.emptySet;
 
 public class SwingInputArea implements InputArea {
 
+    private final JPanel panel = new JPanel(new BorderLayout());
+    private final JLabel searchPrompt = new JLabel();
     private final JTextField textField;
+    private final List<Consumer<String>> lineListeners = new CopyOnWriteArrayList<>();
+    private final LineQueue lines = new LineQueue();
+    private final InputHistory history;
+
+    private Completer completer;
+    private int completionRequest;
+    private Completion cycle;
+    private int cycleIndex;
+    private String cycleText;
 
     public SwingInputArea() {
+        this(null);
+    }
+
+    /**
+     * @param history where submitted lines are kept for the up and down keys and Ctrl+R, or null for none
+     */
+    public SwingInputArea(final HistoryStore history) {
+        this.history = history == null ? null : new InputHistory(history);
         this.textField = new JTextField();
-        textField.setBorder(new CompoundBorder(
+        final var font = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+        panel.setBorder(new CompoundBorder(
                 new MatteBorder(1, 0, 0, 0, Color.LIGHT_GRAY),
                 new EmptyBorder(8, 8, 8, 8)));
+        panel.setBackground(textField.getBackground());
+        textField.setBorder(null);
         textField.setFocusTraversalKeys(KeyboardFocusManager.FORWARD_TRAVERSAL_KEYS, emptySet());
-        textField.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        textField.setFont(font);
+        searchPrompt.setFont(font);
+        searchPrompt.setVisible(false);
+        textField.addActionListener(event -> {
+            final var line = textField.getText();
+            textField.setText(null);
+            if (this.history != null) {
+                this.history.add(line);
+                updateSearchPrompt();
+            }
+            lines.accept(line);
+            lineListeners.forEach(listener -> listener.accept(line));
+        });
+        if (this.history != null) {
+            bindHistoryKeys();
+        }
+        textField.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_TAB, 0), "complete");
+        textField.getActionMap().put("complete", action(this::complete));
+        panel.add(BorderLayout.WEST, searchPrompt);
+        panel.add(BorderLayout.CENTER, textField);
         textField.requestFocus();
     }
 
+    @Override
+    public InputArea addLineListener(final Consumer<String> listener) {
+        lineListeners.add(listener);
+        return this;
+    }
+
+    @Override
+    public CompletableFuture<String> readLineAsync() {
+        return lines.readLineAsync();
+    }
+
+    @Override
+    public String readLine() throws InterruptedException {
+        return lines.readLine();
+    }
+
+    /**
+     * Returns the component to add to a window, holding the text field and the search prompt.
+     */
+    public JComponent getComponent() {
+        return panel;
+    }
+
     public JTextField getTextField() {
         return textField;
     }
 
+    /**
+     * Sets what completes the line when Tab is pressed, or null for nothing. Must be called on the event
+     * dispatch thread.
+     */
+    public SwingInputArea setCompleter(final Completer completer) {
+        this.completer = completer;
+        completionRequest++;
+        cycle = null;
+        return this;
+    }
+
+    /**
+     * Asks the completer for candidates without waiting for them. A Tab pressed again while the text is
+     * unchanged moves on to the next candidate when none could be inserted.
+     */
+    private void complete() {
+        if (completer == null) {
+            return;
+        }
+        final var line = textField.getText();
+        if (cycle != null && line.equals(cycleText)) {
+            final var previous = cycle.candidates().get(cycleIndex);
+            cycleIndex = (cycleIndex + 1) % cycle.candidates().size();
+            replace(cycle.start(), cycle.start() + previous.length(), cycle.candidates().get(cycleIndex));
+            cycleText = textField.getText();
+            return;
+        }
+        cycle = null;
+        final var request = ++completionRequest;
+        completer.complete(line, textField.getCaretPosition()).thenAcceptAsync(completion -> {
+            if (request == completionRequest && line.equals(textField.getText())) {
+                apply(completion);
+            }
+        }, SwingUtilities::invokeLater);
+    }
+
+    private void apply(final Completion completion) {
+        final var candidates = completion.candidates();
+        if (candidates.isEmpty()) {
+            return;
+        }
+        if (candidates.size() == 1 && !completion.truncated()) {
+            replace(completion.start(), completion.end(), candidates.get(0) + ' ');
+            return;
+        }
+        final var common = completion.commonPrefix();
+        if (common.length() > completion.end() - completion.start()) {
+            replace(completion.start(), completion.end(), common);
+        } else {
+            cycle = completion;
+            cycleIndex = 0;
+            replace(completion.start(), completion.end(), candidates.get(0));
+            cycleText = textField.getText();
+        }
+    }
+
+    private void replace(final int start, final int end, final String text) {
+        textField.select(start, end);
+        textField.replaceSelection(text);
+    }
+
+    private void bindHistoryKeys() {
+        final var inputMap = textField.getInputMap();
+        final var actionMap = textField.getActionMap();
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_UP, 0), "history-previous");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_DOWN, 0), "history-next");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_R, InputEvent.CTRL_DOWN_MASK), "history-search");
+        actionMap.put("history-previous", action(() -> show(history.previous(textField.getText()))));
+        actionMap.put("history-next", action(() -> show(history.next())));
+        actionMap.put("history-search", action(() -> {
+            show(history.searchOlder(textField.getText()));
+            updateSearchPrompt();
+        }));
+
+        // While searching, typed keys edit the query instead of the text, which shows the match
+        textField.addKeyListener(new KeyAdapter() {
+
+            @Override
+            public void keyPressed(final KeyEvent event) {
+                if (!history.isSearching()) {
+                    return;
+                }
+                final var code = event.getKeyCode();
+                if (code == KeyEvent.VK_ESCAPE || code == KeyEvent.VK_G && event.isControlDown()) {
+                    textField.setText(history.cancelSearch());
+                    event.consume();
+                } else if (code == KeyEvent.VK_BACK_SPACE) {
+                    show(history.searchBackspace());
+                    event.consume();
+                } else if (code == KeyEvent.VK_R && event.isControlDown() || isModifier(code) || isPrintable(event)) {
+                    return;
+                } else {
+                    // Any other key accepts the match and then does what it normally does
+                    history.endSearch();
+                }
+                updateSearchPrompt();
+            }
+
+            @Override
+            public void keyTyped(final KeyEvent event) {
+                if (history.isSearching() && isPrintable(event)) {
+                    show(history.searchAppend(event.getKeyChar()));
+                    updateSearchPrompt();
+                    event.consume();
+                }
+            }
+
+        });
+    }
+
+    private static boolean isModifier(final int code) {
+        return code == KeyEvent.VK_SHIFT || code == KeyEvent.VK_CONTROL || code == KeyEvent.VK_ALT
+                || code == KeyEvent.VK_META || code == KeyEvent.VK_ALT_GRAPH;
+    }
+
+    private static boolean isPrintable(final KeyEvent event) {
+        final var c = event.getKeyChar();
+        return !event.isControlDown() && c != KeyEvent.CHAR_UNDEFINED && !Character.isISOControl(c);
+    }
+
+    private void show(final String text) {
+        if (text != null) {
+            textField.setText(text);
+        }
+    }
+
+    private void updateSearchPrompt() {
+        searchPrompt.setVisible(history.isSearching());
+        if (history.isSearching()) {
+            searchPrompt.setText((history.isFailing() ? "(failed reverse-i-search)`" : "(reverse-i-search)`")
+                    + history.getQuery() + "': ");
+        }
+        panel.revalidate();
+    }
+
+    private static Action action(final Runnable runnable) {
+        return new AbstractAction() {
+
+            @Override
+            public void actionPerformed(final ActionEvent event) {
+                runnable.run();
+            }
+
+        };
+    }
+
 }
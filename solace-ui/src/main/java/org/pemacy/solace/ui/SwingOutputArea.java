@@ -1,16 +1,52 @@
 package org.pemacy.solace.ui.output;
 
+import org.pemacy.solace.Style;
+import org.pemacy.solace.Writer;
+
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.text.BadLocationException;
 import javax.swing.text.DefaultCaret;
+import javax.swing.text.DefaultHighlighter;
+import javax.swing.text.Highlighter;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
 
-public class SwingOutputArea implements OutputArea {
+public class SwingOutputArea implements ComponentOutputArea {
 
     private final JScrollPane scrollPane;
+    private final TailFollower tailFollower;
+    private final JTextArea textArea;
+    private final OutputDocument document;
+    private final SearchIndex searchIndex;
+    private final Highlighter.HighlightPainter highlightPainter =
+            new DefaultHighlighter.DefaultHighlightPainter(SEARCH_HIGHLIGHT);
+    private final List<Object> highlights = new ArrayList<>();
+    private final LineRing lines = new LineRing();
+    private final Scrollback scrollback;
+    private final int framesPerSecond;
+    private volatile CoalescingWriter writer;
+    private Search search;
 
     public SwingOutputArea() {
-        final var textArea = new JTextArea();
+        this(new ScrollbackBuilder().build());
+    }
+
+    public SwingOutputArea(final Scrollback scrollback) {
+        this(scrollback, CoalescingWriter.DEFAULT_FRAMES_PER_SECOND);
+    }
+
+    public SwingOutputArea(final Scrollback scrollback, final int framesPerSecond) {
+        if (framesPerSecond < 1) {
+            throw new IllegalArgumentException("framesPerSecond must be positive: " + framesPerSecond);
+        }
+        this.scrollback = scrollback;
+        this.framesPerSecond = framesPerSecond;
+
+        this.document = new OutputDocument(TextStorage.of(scrollback));
+        this.searchIndex = SearchIndex.attach(document);
+        this.textArea = new JTextArea(document);
         textArea.setBorder(new EmptyBorder(8, 8, 8, 8));
         textArea.setEditable(false);
         textArea.setFocusable(false);
@@ -20,16 +56,167 @@ public class SwingOutputArea implements OutputArea {
         textArea.setWrapStyleWord(true);
 
         final var caret = (DefaultCaret) textArea.getCaret();
-        caret.setUpdatePolicy(DefaultCaret.ALWAYS_UPDATE);
+        caret.setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
 
         this.scrollPane = new JScrollPane();
         scrollPane.setBorder(null);
         scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
         scrollPane.setViewportView(textArea);
+        scrollPane.getViewport().addChangeListener(event -> highlightVisibleMatches());
+        this.tailFollower = TailFollower.attach(scrollPane);
+    }
+
+    @Override
+    public Writer<OutputArea> print(final Object content) {
+        getWriter().print(content);
+        return this;
+    }
+
+    @Override
+    public Writer<OutputArea> print(final Style style, final Object content) {
+        getWriter().print(style, content);
+        return this;
+    }
+
+    @Override
+    public Writer<OutputArea> print(final char[] content, final int offset, final int length) {
+        getWriter().print(content, offset, length);
+        return this;
+    }
+
+    @Override
+    public Writer<OutputArea> print(final Style style, final char[] content, final int offset, final int length) {
+        getWriter().print(style, content, offset, length);
+        return this;
+    }
+
+    @Override
+    public OutputArea clear() {
+        if (SwingUtilities.isEventDispatchThread()) {
+            getWriter().discard();
+            textArea.setText(null);
+            lines.clear();
+        } else {
+            SwingUtilities.invokeLater(this::clear);
+        }
+        return this;
+    }
+
+    @Override
+    public Search search(final String query) {
+        clearSearch();
+        search = new Search(document, searchIndex, query).onMatches(matches -> highlightVisibleMatches());
+        return search;
+    }
+
+    @Override
+    public void clearSearch() {
+        if (search != null) {
+            search.cancel();
+            search = null;
+            highlightVisibleMatches();
+        }
     }
 
+    @Override
+    public void append(final CharSequence text) {
+        final var document = textArea.getDocument();
+        try {
+            document.insertString(document.getLength(), text.toString(), null);
+            lines.append(text);
+            final var evicted = lines.evict(scrollback.maxLines(), scrollback.maxChars());
+            if (evicted > 0) {
+                document.remove(0, evicted);
+            }
+        } catch (final BadLocationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Highlights only the matches inside the viewport, so the highlighter's cost does not grow with the
+     * number of matches.
+     */
+    private void highlightVisibleMatches() {
+        final var highlighter = textArea.getHighlighter();
+        for (final var highlight : highlights) {
+            highlighter.removeHighlight(highlight);
+        }
+        highlights.clear();
+        if (search == null || search.getMatchCount() == 0) {
+            return;
+        }
+        final var visible = textArea.getVisibleRect();
+        final var start = document.toAbsolute(textArea.viewToModel2D(visible.getLocation()));
+        final var end = document.toAbsolute(textArea.viewToModel2D(
+                new Point(visible.x + visible.width, visible.y + visible.height)));
+        final var length = search.getQuery().length();
+        final var documentStart = document.toAbsolute(0);
+        try {
+            for (var match = search.indexOfMatchEndingAfter(start); match < search.getMatchCount(); match++) {
+                final var matchStart = search.getMatch(match);
+                if (matchStart > end) {
+                    break;
+                }
+                highlights.add(highlighter.addHighlight((int) (Math.max(matchStart, documentStart) - documentStart),
+                        (int) (matchStart + length - documentStart), highlightPainter));
+            }
+        } catch (final BadLocationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the writer that coalesces prints into frames. It is attached on first use rather than by the
+     * constructor, so that it never flushes into an area that is still being constructed.
+     */
+    public CoalescingWriter getWriter() {
+        var writer = this.writer;
+        if (writer == null) {
+            synchronized (this) {
+                writer = this.writer;
+                if (writer == null) {
+                    writer = CoalescingWriter.attach(this, framesPerSecond);
+                    this.writer = writer;
+                }
+            }
+        }
+        return writer;
+    }
+
+    @Override
+    public void flush() {
+        getWriter().flush();
+    }
+
+    @Override
     public JComponent getComponent() {
         return scrollPane;
     }
 
+    public TailFollower getTailFollower() {
+        return tailFollower;
+    }
+
+    public JTextArea getTextArea() {
+        return textArea;
+    }
+
+    public long getEvictedLines() {
+        return lines.getEvictedLines();
+    }
+
+    public long getEvictedChars() {
+        return lines.getEvictedChars();
+    }
+
+    public Scrollback getScrollback() {
+        return scrollback;
+    }
+
+    @Override
+    public OutputArea getSelf() {
+        return this;
+    }
+
 }
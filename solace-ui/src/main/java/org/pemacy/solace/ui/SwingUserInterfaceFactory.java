@@ -1,16 +1,44 @@
 package org.pemacy.solace.ui;
 
+import org.pemacy.solace.io.HistoryStore;
 import org.pemacy.solace.ui.input.SwingInputArea;
-import org.pemacy.solace.ui.output.SwingOutputArea;
+import org.pemacy.solace.ui.output.ComponentOutputArea;
+import org.pemacy.solace.ui.output.GridOutputArea;
 import org.pemacy.solace.ui.window.SwingWindow;
 import org.pemacy.solace.ui.window.Window;
 
+import java.util.function.Supplier;
+
+/**
+ * Creates Swing windows. Their output area is a {@link GridOutputArea} unless another is supplied, so
+ * resizing a window only wraps the lines that are painted rather than the whole scrollback.
+ */
 public class SwingUserInterfaceFactory implements UserInterfaceFactory {
 
+    private final Supplier<? extends ComponentOutputArea> outputAreaFactory;
+    private final HistoryStore history;
+
+    public SwingUserInterfaceFactory() {
+        this(GridOutputArea::new);
+    }
+
+    public SwingUserInterfaceFactory(final Supplier<? extends ComponentOutputArea> outputAreaFactory) {
+        this(outputAreaFactory, null);
+    }
+
+    /**
+     * @param history the input history shared by all windows, or null for none
+     */
+    public SwingUserInterfaceFactory(final Supplier<? extends ComponentOutputArea> outputAreaFactory,
+            final HistoryStore history) {
+        this.outputAreaFactory = outputAreaFactory;
+        this.history = history;
+    }
+
     @Override
     public Window newWindow() {
-        final var outputArea = new SwingOutputArea();
-        final var inputArea = new SwingInputArea();
+        final var outputArea = outputAreaFactory.get();
+        final var inputArea = new SwingInputArea(history);
         return new SwingWindow(outputArea, inputArea);
     }
 
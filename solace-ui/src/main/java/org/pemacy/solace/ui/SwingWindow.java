@@ -1,47 +1,124 @@
 package org.pemacy.solace.ui.window;
 
+import org.pemacy.solace.ui.input.InputArea;
 import org.pemacy.solace.ui.input.SwingInputArea;
-import org.pemacy.solace.ui.output.SwingOutputArea;
+import org.pemacy.solace.ui.output.ComponentOutputArea;
+import org.pemacy.solace.ui.output.OutputArea;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 
+/**
+ * A window of a Swing user interface. The frame is only created when it is first needed, which is usually
+ * when the window is shown, so output can be printed to the window before and while the frame is built.
+ * The window may be configured from any thread; changes to an existing frame are made on the event
+ * dispatch thread.
+ */
 public class SwingWindow implements Window {
 
-    private final JFrame frame = new JFrame();
+    private final ComponentOutputArea outputArea;
+    private final SwingInputArea inputArea;
+    private JFrame frame;
+    private String title;
+    private boolean centered;
 
-    public SwingWindow(final SwingOutputArea outputArea, final SwingInputArea inputArea) {
-        final var layout = new BorderLayout();
-        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-        frame.setLayout(layout);
-        frame.setMinimumSize(new Dimension(512, 256));
-        frame.setPreferredSize(new Dimension(1024, 512));
-        frame.pack();
-
-        frame.add(BorderLayout.CENTER, outputArea.getComponent());
-        frame.add(BorderLayout.SOUTH, inputArea.getTextField());
+    public SwingWindow(final ComponentOutputArea outputArea, final SwingInputArea inputArea) {
+        this.outputArea = outputArea;
+        this.inputArea = inputArea;
     }
 
     @Override
-    public Window centerOnScreen() {
-        frame.setLocationRelativeTo(null);
+    public synchronized Window centerOnScreen() {
+        centered = true;
+        if (frame != null) {
+            onEventDispatchThread(() -> getFrame().setLocationRelativeTo(null));
+        }
         return this;
     }
 
-    public JFrame getFrame() {
+    /**
+     * Returns the frame, creating it if needed. Must be called on the event dispatch thread.
+     */
+    public synchronized JFrame getFrame() {
+        if (frame == null) {
+            frame = new JFrame(title);
+            frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+            frame.addWindowListener(new WindowAdapter() {
+
+                @Override
+                public void windowClosed(final WindowEvent event) {
+                    outputArea.dispose();
+                }
+
+            });
+            frame.setLayout(new BorderLayout());
+            frame.setMinimumSize(new Dimension(512, 256));
+            frame.setPreferredSize(new Dimension(1024, 512));
+            frame.pack();
+
+            frame.add(BorderLayout.CENTER, outputArea.getComponent());
+            frame.add(BorderLayout.SOUTH, inputArea.getComponent());
+            if (centered) {
+                frame.setLocationRelativeTo(null);
+            }
+        }
         return frame;
     }
 
     @Override
-    public Window setTitle(final String title) {
-        frame.setTitle(title);
+    public OutputArea getOutputArea() {
+        return outputArea;
+    }
+
+    @Override
+    public InputArea getInputArea() {
+        return inputArea;
+    }
+
+    @Override
+    public synchronized Window setTitle(final String title) {
+        this.title = title;
+        if (frame != null) {
+            onEventDispatchThread(() -> getFrame().setTitle(title));
+        }
         return this;
     }
 
     @Override
     public Window setVisible(final boolean visible) {
-        SwingUtilities.invokeLater(() -> frame.setVisible(visible));
+        SwingUtilities.invokeLater(() -> {
+            if (visible || frame != null) {
+                getFrame().setVisible(visible);
+            }
+        });
         return this;
     }
 
+    /**
+     * Disposes the frame, which also disposes the output area, or only the output area if the frame was
+     * never created.
+     */
+    @Override
+    public void dispose() {
+        onEventDispatchThread(() -> {
+            synchronized (this) {
+                if (frame != null) {
+                    frame.dispose();
+                    return;
+                }
+            }
+            outputArea.dispose();
+        });
+    }
+
+    private static void onEventDispatchThread(final Runnable runnable) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            runnable.run();
+        } else {
+            SwingUtilities.invokeLater(runnable);
+        }
+    }
+
 }
@@ -0,0 +1,57 @@
+package org.pemacy.solace.ui;
+
+import org.pemacy.solace.ui.input.TerminalInputArea;
+import org.pemacy.solace.ui.output.Scrollback;
+import org.pemacy.solace.ui.output.ScrollbackBuilder;
+import org.pemacy.solace.ui.output.TerminalOutputArea;
+import org.pemacy.solace.ui.window.TerminalWindow;
+
+public class TerminalUserInterfaceFactory implements UserInterfaceFactory {
+
+    private static final int DEFAULT_COLUMNS = 80;
+    private static final int DEFAULT_ROWS = 24;
+    private static final int FRAMES_PER_SECOND = 30;
+
+    private final Scrollback scrollback;
+    private final int columns;
+    private final int rows;
+
+    public TerminalUserInterfaceFactory() {
+        this(new ScrollbackBuilder().build(), dimension("COLUMNS", DEFAULT_COLUMNS), dimension("LINES", DEFAULT_ROWS));
+    }
+
+    public TerminalUserInterfaceFactory(final Scrollback scrollback, final int columns, final int rows) {
+        if (rows < 3) {
+            throw new IllegalArgumentException("A terminal window needs at least 3 rows: " + rows);
+        }
+        this.scrollback = scrollback;
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    /**
+     * Creates a window on standard output. Every terminal window reads standard input through the same
+     * input area, so that a single thread reads it.
+     */
+    @Override
+    public TerminalWindow newWindow() {
+        final var outputArea = new TerminalOutputArea(scrollback);
+        return new TerminalWindow(outputArea, StandardInput.AREA, System.out, columns, rows, FRAMES_PER_SECOND);
+    }
+
+    private static int dimension(final String variable, final int fallback) {
+        try {
+            final var value = System.getenv(variable);
+            return value == null ? fallback : Integer.parseInt(value.trim());
+        } catch (final NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static final class StandardInput {
+
+        private static final TerminalInputArea AREA = new TerminalInputArea(System.in);
+
+    }
+
+}
@@ -0,0 +1,153 @@
+package org.pemacy.solace.ui;
+
+import org.pemacy.solace.io.TranscriptReader;
+import org.pemacy.solace.ui.output.ComponentOutputArea;
+import org.pemacy.solace.ui.output.OutputArea;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Replays a recorded transcript through the output path of a user interface, either with the original
+ * timing scaled by a speed factor or as fast as possible. Since the result reports the throughput that
+ * was achieved, replaying at {@link #MAXIMUM_SPEED} doubles as a load test of an output area.
+ * <p>
+ * Replaying into a Swing output area ends once the last output has been appended and painted, so the
+ * elapsed time covers the whole output path rather than just the queueing of writes. That wait must not
+ * block the event dispatch thread, so a replay started there has to use {@link #replayAsync}.
+ */
+public class TranscriptReplayer {
+
+    public static final double ORIGINAL_SPEED = 1.0;
+    public static final double MAXIMUM_SPEED = Double.POSITIVE_INFINITY;
+
+    private static final ExecutorService REPLAYS = Executors.newSingleThreadExecutor(runnable -> {
+        final var thread = new Thread(runnable, "solace-transcript-replayer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path transcript;
+
+    public TranscriptReplayer(final Path transcript) {
+        this.transcript = transcript;
+    }
+
+    /**
+     * Opens a new window of the factory, replays the transcript into its output area and disposes it.
+     * Must not be called on the event dispatch thread.
+     */
+    public ReplayResult replay(final UserInterfaceFactory factory, final double speed) throws IOException {
+        requireOffEventDispatchThread();
+        final var window = factory.newWindow();
+        window.setVisible(true);
+        try {
+            if (window.getOutputArea() instanceof ComponentOutputArea) {
+                // Waits for the window to be shown before timing starts
+                onEventDispatchThread(() -> { });
+            }
+            return replay(window.getOutputArea(), line -> { }, speed);
+        } finally {
+            window.dispose();
+        }
+    }
+
+    /**
+     * Replays the transcript into the output area and passes recorded input lines to a consumer. Must not
+     * be called on the event dispatch thread.
+     *
+     * @param speed a factor applied to the original timing, or {@link #MAXIMUM_SPEED} to ignore it
+     */
+    public ReplayResult replay(final OutputArea output, final Consumer<String> input, final double speed)
+            throws IOException {
+        requireOffEventDispatchThread();
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("speed must be positive: " + speed);
+        }
+        final var timed = speed != MAXIMUM_SPEED;
+        var records = 0L;
+        var lines = 0L;
+        var chars = 0L;
+        final var start = System.nanoTime();
+        try (final var reader = new TranscriptReader(transcript)) {
+            while (reader.next()) {
+                if (timed) {
+                    final var due = start + (long) (reader.getNanos() / speed);
+                    for (var wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                final var text = reader.getText();
+                if (reader.isInput()) {
+                    input.accept(text);
+                } else {
+                    output.print(text);
+                    chars += text.length();
+                    for (var i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1)) {
+                        lines++;
+                    }
+                }
+                records++;
+            }
+        }
+        if (output instanceof ComponentOutputArea area) {
+            onEventDispatchThread(() -> {
+                area.flush();
+                final var component = area.getComponent();
+                if (component.isShowing()) {
+                    component.paintImmediately(component.getVisibleRect());
+                }
+            });
+        }
+        return new ReplayResult(records, lines, chars, System.nanoTime() - start);
+    }
+
+    /**
+     * Replays the transcript on a background thread, completing with the result once it has been painted.
+     */
+    public CompletableFuture<ReplayResult> replayAsync(final UserInterfaceFactory factory, final double speed) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return replay(factory, speed);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, REPLAYS);
+    }
+
+    /**
+     * Replays the transcript on a background thread, completing with the result once it has been painted.
+     */
+    public CompletableFuture<ReplayResult> replayAsync(final OutputArea output, final Consumer<String> input,
+            final double speed) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return replay(output, input, speed);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, REPLAYS);
+    }
+
+    public Path getTranscript() {
+        return transcript;
+    }
+
+    private static void requireOffEventDispatchThread() {
+        if (SwingUtilities.isEventDispatchThread()) {
+            throw new IllegalStateException("Cannot wait for a replay on the event dispatch thread");
+        }
+    }
+
+    private static void onEventDispatchThread(final Runnable runnable) {
+        CompletableFuture.runAsync(runnable, SwingUtilities::invokeLater).join();
+    }
+
+}
@@ -0,0 +1,16 @@
+package org.pemacy.solace.ui.input;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Provides completions for an input line. It is called on the thread that handles input, which for a
+ * Swing input area is the event dispatch thread, so a completer that has to look anything up should do
+ * so on another thread and complete the future from there. An input area drops a completion that arrives
+ * after the line has changed.
+ */
+@FunctionalInterface
+public interface Completer {
+
+    CompletableFuture<Completion> complete(final String line, final int caret);
+
+}
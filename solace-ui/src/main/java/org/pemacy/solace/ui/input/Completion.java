@@ -0,0 +1,50 @@
+package org.pemacy.solace.ui.input;
+
+import java.util.List;
+
+/**
+ * The candidates for replacing the text of an input line between two offsets, usually the word before the
+ * caret. A completer that lists only some of the matches sets {@code truncated} and gives the common prefix
+ * of all of them, since that of the listed candidates can be longer.
+ *
+ * @param commonPrefix the longest string that every match starts with
+ * @param truncated    whether there are more matches than the candidates
+ */
+public record Completion(int start, int end, List<String> candidates, String commonPrefix, boolean truncated) {
+
+    public Completion {
+        candidates = List.copyOf(candidates);
+    }
+
+    /**
+     * Creates a completion listing every match.
+     */
+    public Completion(final int start, final int end, final List<String> candidates) {
+        this(start, end, candidates, commonPrefix(candidates), false);
+    }
+
+    public static Completion none(final int caret) {
+        return new Completion(caret, caret, List.of());
+    }
+
+    /**
+     * Returns the longest string that all the given candidates start with.
+     */
+    private static String commonPrefix(final List<String> candidates) {
+        if (candidates.isEmpty()) {
+            return "";
+        }
+        final var first = candidates.get(0);
+        var length = first.length();
+        for (final var candidate : candidates) {
+            length = Math.min(length, candidate.length());
+            for (var i = 0; i < length; i++) {
+                if (candidate.charAt(i) != first.charAt(i)) {
+                    length = i;
+                }
+            }
+        }
+        return first.substring(0, length);
+    }
+
+}
@@ -0,0 +1,200 @@
+package org.pemacy.solace.ui.input;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A set of completion candidates stored as a radix tree, where each edge holds the run of characters that
+ * its words share. Children are kept sorted by their first character, so looking up a prefix takes one
+ * binary search per edge and compares characters in place, and words are listed in order.
+ * <p>
+ * Lookups allocate only the words they return. The trie is not thread-safe; a completer that adds words
+ * from another thread must synchronize with its lookups.
+ */
+public class CompletionTrie {
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+
+    private final Node root = new Node(NO_CHARS);
+    private int size;
+
+    /**
+     * Adds a word, returning false if it was already present.
+     */
+    public boolean add(final CharSequence word) {
+        var node = root;
+        var i = 0;
+        while (i < word.length()) {
+            final var child = node.indexOf(word.charAt(i));
+            if (child < 0) {
+                final var leaf = new Node(chars(word, i, word.length()));
+                leaf.terminal = true;
+                node.insert(-child - 1, leaf);
+                size++;
+                return true;
+            }
+            final var next = node.children[child];
+            final var common = commonLength(next.label, word, i);
+            if (common < next.label.length) {
+                // Split the edge where the word leaves it
+                final var middle = new Node(Arrays.copyOf(next.label, common));
+                next.label = Arrays.copyOfRange(next.label, common, next.label.length);
+                middle.insert(0, next);
+                node.children[child] = middle;
+            }
+            node = node.children[child];
+            i += common;
+        }
+        if (node.terminal) {
+            return false;
+        }
+        node.terminal = true;
+        size++;
+        return true;
+    }
+
+    public CompletionTrie addAll(final Iterable<? extends CharSequence> words) {
+        for (final var word : words) {
+            add(word);
+        }
+        return this;
+    }
+
+    public boolean contains(final CharSequence word) {
+        final var match = find(word);
+        return match != null && match.remaining == 0 && match.node.terminal;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns up to the given number of words that start with the prefix, in order.
+     */
+    public List<String> complete(final CharSequence prefix, final int limit) {
+        final var words = new ArrayList<String>();
+        final var match = find(prefix);
+        if (match == null || limit <= 0) {
+            return words;
+        }
+        final var word = new StringBuilder(prefix.length() + 32).append(prefix);
+        word.append(match.node.label, match.node.label.length - match.remaining, match.remaining);
+        collect(match.node, word, words, limit);
+        return words;
+    }
+
+    /**
+     * Returns the longest string that every word starting with the prefix starts with, or null if no word
+     * starts with it.
+     */
+    public String commonPrefix(final CharSequence prefix) {
+        final var match = find(prefix);
+        if (match == null) {
+            return null;
+        }
+        final var common = new StringBuilder(prefix);
+        common.append(match.node.label, match.node.label.length - match.remaining, match.remaining);
+        var node = match.node;
+        while (!node.terminal && node.count == 1) {
+            node = node.children[0];
+            common.append(node.label);
+        }
+        return common.toString();
+    }
+
+    /**
+     * Finds the node whose path contains the end of the prefix, along with how many characters of its label
+     * follow the prefix.
+     */
+    private Match find(final CharSequence prefix) {
+        var node = root;
+        var i = 0;
+        while (i < prefix.length()) {
+            final var child = node.indexOf(prefix.charAt(i));
+            if (child < 0) {
+                return null;
+            }
+            node = node.children[child];
+            final var common = commonLength(node.label, prefix, i);
+            if (i + common == prefix.length()) {
+                return new Match(node, node.label.length - common);
+            }
+            if (common < node.label.length) {
+                return null;
+            }
+            i += common;
+        }
+        return new Match(node, 0);
+    }
+
+    private static void collect(final Node node, final StringBuilder word, final List<String> words,
+            final int limit) {
+        if (node.terminal) {
+            words.add(word.toString());
+        }
+        for (var i = 0; i < node.count && words.size() < limit; i++) {
+            final var child = node.children[i];
+            final var length = word.length();
+            collect(child, word.append(child.label), words, limit);
+            word.setLength(length);
+        }
+    }
+
+    private static int commonLength(final char[] label, final CharSequence word, final int from) {
+        final var length = Math.min(label.length, word.length() - from);
+        var common = 0;
+        while (common < length && label[common] == word.charAt(from + common)) {
+            common++;
+        }
+        return common;
+    }
+
+    private static char[] chars(final CharSequence text, final int from, final int to) {
+        final var chars = new char[to - from];
+        for (var i = from; i < to; i++) {
+            chars[i - from] = text.charAt(i);
+        }
+        return chars;
+    }
+
+    private static final class Node {
+
+        private char[] label;
+        private boolean terminal;
+        private char[] firsts = NO_CHARS;
+        private Node[] children = NO_NODES;
+        private int count;
+
+        private Node(final char[] label) {
+            this.label = label;
+        }
+
+        /**
+         * Returns the index of the child starting with the given character, or {@code -(insertion point) - 1}.
+         */
+        private int indexOf(final char first) {
+            return Arrays.binarySearch(firsts, 0, count, first);
+        }
+
+        private void insert(final int index, final Node child) {
+            if (count == children.length) {
+                final var capacity = Math.max(2, count << 1);
+                firsts = Arrays.copyOf(firsts, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(firsts, index, firsts, index + 1, count - index);
+            System.arraycopy(children, index, children, index + 1, count - index);
+            firsts[index] = child.label[0];
+            children[index] = child;
+            count++;
+        }
+
+    }
+
+    private record Match(Node node, int remaining) {
+    }
+
+}
@@ -0,0 +1,76 @@
+package org.pemacy.solace.ui.input;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * An input area fed by the program rather than a user. Lines submitted before any listener is registered
+ * are kept and delivered to the first listener, so a script can be queued before the application starts.
+ * Those lines are bounded like the lines kept for reading, dropping the oldest beyond the capacity.
+ */
+public class HeadlessInputArea implements InputArea {
+
+    private final List<Consumer<String>> lineListeners = new ArrayList<>();
+    private final ArrayDeque<String> pending = new ArrayDeque<>();
+    private final int capacity;
+    private final LineQueue lines;
+
+    /**
+     * @param script lines to submit right away, all of which are kept however many there are
+     */
+    public HeadlessInputArea(final String... script) {
+        this.capacity = Math.max(LineQueue.DEFAULT_CAPACITY, script.length);
+        this.lines = new LineQueue(capacity);
+        for (final var line : script) {
+            lines.accept(line);
+            pending.add(line);
+        }
+    }
+
+    @Override
+    public synchronized InputArea addLineListener(final Consumer<String> listener) {
+        lineListeners.add(listener);
+        if (lineListeners.size() == 1) {
+            pending.forEach(listener);
+            pending.clear();
+        }
+        return this;
+    }
+
+    @Override
+    public CompletableFuture<String> readLineAsync() {
+        return lines.readLineAsync();
+    }
+
+    @Override
+    public String readLine() throws InterruptedException {
+        return lines.readLine();
+    }
+
+    public synchronized HeadlessInputArea submit(final String... lines) {
+        for (final var line : lines) {
+            this.lines.accept(line);
+            if (lineListeners.isEmpty()) {
+                if (pending.size() == capacity) {
+                    pending.poll();
+                }
+                pending.add(line);
+            } else {
+                lineListeners.forEach(listener -> listener.accept(line));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Ends the input, so that reads return null once the lines submitted so far have been read.
+     */
+    public HeadlessInputArea end() {
+        lines.end();
+        return this;
+    }
+
+}
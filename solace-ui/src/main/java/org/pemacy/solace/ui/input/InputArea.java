@@ -0,0 +1,29 @@
+package org.pemacy.solace.ui.input;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Where a user submits lines. Every line is passed to the line listeners and also queued for
+ * {@link #readLine()} and {@link #readLineAsync()}, so an application can either react to lines or read
+ * them in sequence. Only the most recent unread lines are kept, up to {@link LineQueue#DEFAULT_CAPACITY}.
+ * <p>
+ * An input area whose input can end, such as one reading a stream, returns null from reads once it has
+ * ended and every line has been read.
+ */
+public interface InputArea {
+
+    InputArea addLineListener(final Consumer<String> listener);
+
+    /**
+     * Returns a future completed with the next line that has not been read, or with null at the end of input.
+     */
+    CompletableFuture<String> readLineAsync();
+
+    /**
+     * Waits for the next line that has not been read, returning null at the end of input. Meant for worker
+     * and virtual threads, never the event dispatch thread.
+     */
+    String readLine() throws InterruptedException;
+
+}
@@ -0,0 +1,233 @@
+package org.pemacy.solace.ui.input;
+
+import org.pemacy.solace.io.HistoryStore;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Navigation and reverse incremental search over a {@link HistoryStore}, as done by an input area with
+ * the up and down keys and Ctrl+R. Stepping back skips entries that were already shown, so a command
+ * repeated throughout the history is only visited once.
+ * <p>
+ * Added lines are written to the store on a background thread, in order. Until a line has been written
+ * it is kept in memory and navigated and searched from there, so the event dispatch thread never waits
+ * for a write to finish.
+ */
+public class InputHistory {
+
+    private static final ExecutorService SAVES = Executors.newSingleThreadExecutor(runnable -> {
+        final var thread = new Thread(runnable, "solace-input-history");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final HistoryStore store;
+    private final List<String> unsaved = new ArrayList<>();
+    private int savedSize;
+    private final List<Step> trail = new ArrayList<>();
+    private final Set<String> shown = new HashSet<>();
+    private String draft = "";
+
+    private final StringBuilder query = new StringBuilder();
+    private boolean searching;
+    private boolean failing;
+    private int match;
+
+    public InputHistory(final HistoryStore store) {
+        this.store = store;
+        this.savedSize = store.size();
+    }
+
+    /**
+     * Adds a submitted line to the history and ends any navigation. A line that the store would not keep,
+     * because it is blank or equal to the last entry, is ignored.
+     */
+    public void add(final String line) {
+        reset();
+        final var text = line.replace('\r', ' ').replace('\n', ' ');
+        final var size = size();
+        if (text.isBlank() || size > 0 && text.equals(entry(size - 1))) {
+            return;
+        }
+        synchronized (unsaved) {
+            unsaved.add(text);
+        }
+        SAVES.execute(() -> {
+            try {
+                store.add(text);
+            } finally {
+                synchronized (unsaved) {
+                    unsaved.remove(0);
+                    savedSize = store.size();
+                }
+            }
+        });
+    }
+
+    /**
+     * Steps back to the previous entry, remembering the current text if navigation starts here. Only the
+     * entries between the current one and the one returned are read, each once per navigation.
+     *
+     * @return the entry, or null if there is no earlier one
+     */
+    public String previous(final String current) {
+        if (trail.isEmpty()) {
+            draft = current;
+            shown.clear();
+            shown.add(current);
+        }
+        final var cursor = trail.isEmpty() ? size() : trail.get(trail.size() - 1).entry();
+        for (var entry = cursor - 1; entry >= 0; entry--) {
+            final var text = entry(entry);
+            if (shown.add(text)) {
+                trail.add(new Step(entry, text));
+                return text;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Steps forward to the entry shown before the current one, and finally back to the text that was
+     * being typed when navigation started.
+     *
+     * @return the entry or draft, or null if not navigating
+     */
+    public String next() {
+        if (trail.isEmpty()) {
+            return null;
+        }
+        shown.remove(trail.remove(trail.size() - 1).text());
+        return trail.isEmpty() ? draft : trail.get(trail.size() - 1).text();
+    }
+
+    public void reset() {
+        trail.clear();
+        shown.clear();
+        draft = "";
+        endSearch();
+    }
+
+    public boolean isSearching() {
+        return searching;
+    }
+
+    /**
+     * Returns whether the current search query matches nothing before the current match.
+     */
+    public boolean isFailing() {
+        return failing;
+    }
+
+    public String getQuery() {
+        return query.toString();
+    }
+
+    /**
+     * Starts a search, or continues the current one before the current match.
+     *
+     * @return the matching entry, or null if the text should stay as it is
+     */
+    public String searchOlder(final String current) {
+        if (!searching) {
+            searching = true;
+            failing = false;
+            draft = current;
+            query.setLength(0);
+            match = size();
+            return null;
+        }
+        return search(match);
+    }
+
+    /**
+     * Extends the query. The current match is kept if it still matches, as in a shell.
+     */
+    public String searchAppend(final char c) {
+        query.append(c);
+        return search(Math.min(match + 1, size()));
+    }
+
+    /**
+     * Shortens the query and searches again from the end of the history.
+     */
+    public String searchBackspace() {
+        if (!query.isEmpty()) {
+            query.setLength(query.length() - 1);
+        }
+        match = size();
+        failing = false;
+        return search(match);
+    }
+
+    /**
+     * Ends the search and returns the text that was being typed when it started.
+     */
+    public String cancelSearch() {
+        endSearch();
+        return draft;
+    }
+
+    public void endSearch() {
+        searching = false;
+        failing = false;
+        query.setLength(0);
+    }
+
+    /**
+     * Returns the number of entries, counting the lines that are still being written.
+     */
+    private int size() {
+        synchronized (unsaved) {
+            return savedSize + unsaved.size();
+        }
+    }
+
+    private String entry(final int number) {
+        synchronized (unsaved) {
+            if (number >= savedSize) {
+                return unsaved.get(number - savedSize);
+            }
+        }
+        return store.get(number);
+    }
+
+    private String search(final int before) {
+        if (query.isEmpty()) {
+            return null;
+        }
+        // Lines that are still being written are newer than any in the store, so they are searched first
+        final var text = query.toString();
+        var found = -1;
+        final int saved;
+        synchronized (unsaved) {
+            saved = savedSize;
+            for (var i = Math.min(before, saved + unsaved.size()) - 1; i >= saved && found < 0; i--) {
+                if (unsaved.get(i - saved).contains(text)) {
+                    found = i;
+                }
+            }
+        }
+        if (found < 0) {
+            found = store.search(text, Math.min(before, saved));
+        }
+        failing = found < 0;
+        if (failing) {
+            return null;
+        }
+        match = found;
+        return entry(found);
+    }
+
+    /**
+     * An entry shown while stepping back through the history.
+     */
+    private record Step(int entry, String text) {
+    }
+
+}
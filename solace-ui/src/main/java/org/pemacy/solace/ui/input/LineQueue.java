@@ -0,0 +1,141 @@
+package org.pemacy.solace.ui.input;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Hands submitted lines to readers in order, without locks. Lines that arrive while nobody is reading are
+ * queued, and readers that arrive while no line is queued wait on a future. Whoever adds to either queue
+ * then matches lines with readers, so a line is never left queued while a reader waits.
+ * <p>
+ * A blocking read waits on its future, which parks a virtual thread without holding on to its carrier, so
+ * a session's input can be read in a plain loop however many sessions there are.
+ * <p>
+ * At most a given number of unread lines are kept, dropping the oldest beyond that, so an input area
+ * whose lines are only ever handled by listeners does not keep every line submitted.
+ * <p>
+ * Once the queue is {@linkplain #end() ended}, readers get null after the lines still queued.
+ */
+public class LineQueue implements Consumer<String> {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final ConcurrentLinkedDeque<String> lines = new ConcurrentLinkedDeque<>();
+    private final ConcurrentLinkedDeque<CompletableFuture<String>> readers = new ConcurrentLinkedDeque<>();
+    private final int capacity;
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean ended;
+
+    public LineQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LineQueue(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void accept(final String line) {
+        lines.offer(line);
+        if (size.incrementAndGet() > capacity && poll() != null) {
+            dropped.increment();
+        }
+        match();
+    }
+
+    /**
+     * Marks the end of input, such as the end of a stream: once the lines queued so far have been read,
+     * every reader gets null.
+     */
+    public void end() {
+        ended = true;
+        match();
+    }
+
+    /**
+     * Returns a future completed with the next line, or with null once the queue has ended and every line
+     * has been read. Cancelling the future gives up its line to the next reader.
+     */
+    public CompletableFuture<String> readLineAsync() {
+        final var line = readers.isEmpty() ? poll() : null;
+        if (line != null) {
+            return CompletableFuture.completedFuture(line);
+        }
+        if (ended && readers.isEmpty() && lines.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final var reader = new CompletableFuture<String>();
+        readers.offer(reader);
+        match();
+        return reader;
+    }
+
+    /**
+     * Waits for the next line, returning null once the queue has ended and every line has been read.
+     */
+    public String readLine() throws InterruptedException {
+        final var reader = readLineAsync();
+        try {
+            return reader.get();
+        } catch (final InterruptedException e) {
+            if (!reader.cancel(false) && reader.resultNow() != null) {
+                // The line arrived anyway, so it goes back to the front for the next reader
+                pushBack(reader.resultNow());
+                match();
+            }
+            throw e;
+        } catch (final ExecutionException | CancellationException e) {
+            throw new IllegalStateException("Line reader failed", e);
+        }
+    }
+
+    /**
+     * Returns the number of unread lines that were dropped to stay within the capacity.
+     */
+    public long getDroppedLines() {
+        return dropped.sum();
+    }
+
+    private void match() {
+        while (!lines.isEmpty() && !readers.isEmpty()) {
+            final var reader = readers.poll();
+            if (reader == null) {
+                continue;
+            }
+            final var line = poll();
+            if (line == null) {
+                readers.offerFirst(reader);
+            } else if (!reader.complete(line)) {
+                pushBack(line);
+            }
+        }
+        if (ended && lines.isEmpty()) {
+            for (CompletableFuture<String> reader; (reader = readers.poll()) != null; ) {
+                reader.complete(null);
+            }
+        }
+    }
+
+    private String poll() {
+        final var line = lines.poll();
+        if (line != null) {
+            size.decrementAndGet();
+        }
+        return line;
+    }
+
+    private void pushBack(final String line) {
+        lines.offerFirst(line);
+        size.incrementAndGet();
+    }
+
+}
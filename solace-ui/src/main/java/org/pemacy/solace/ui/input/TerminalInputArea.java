@@ -0,0 +1,48 @@
+package org.pemacy.solace.ui.input;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads lines from a terminal's input stream on a daemon thread. The terminal stays in line mode and
+ * echoes what is typed itself.
+ * <p>
+ * The input ends at the end of the stream, as when piped input runs out, or when reading it fails, which
+ * is reported to the reader thread's uncaught exception handler. Reads then return null.
+ */
+public class TerminalInputArea extends HeadlessInputArea {
+
+    private final InputStream in;
+    private Thread reader;
+
+    public TerminalInputArea(final InputStream in) {
+        this.in = in;
+    }
+
+    public synchronized void start() {
+        if (reader != null) {
+            return;
+        }
+        reader = new Thread(this::read, "solace-terminal-input");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private void read() {
+        try {
+            final var lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            for (String line; (line = lines.readLine()) != null; ) {
+                submit(line);
+            }
+        } catch (final IOException e) {
+            final var thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        } finally {
+            end();
+        }
+    }
+
+}
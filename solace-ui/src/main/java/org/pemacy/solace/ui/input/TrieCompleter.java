@@ -0,0 +1,50 @@
+package org.pemacy.solace.ui.input;
+
+import java.nio.CharBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Completes the word before the caret from a {@link CompletionTrie}. Words are separated by whitespace.
+ * The lookup is quick enough to be done right away, so the returned future is already complete. When more
+ * words match than the limit, the completion is truncated and its common prefix is that of every match.
+ */
+public class TrieCompleter implements Completer {
+
+    public static final int DEFAULT_LIMIT = 1000;
+
+    private final CompletionTrie trie;
+    private final int limit;
+
+    public TrieCompleter(final CompletionTrie trie) {
+        this(trie, DEFAULT_LIMIT);
+    }
+
+    /**
+     * @param limit the largest number of candidates returned for a word
+     */
+    public TrieCompleter(final CompletionTrie trie, final int limit) {
+        this.trie = trie;
+        this.limit = limit;
+    }
+
+    @Override
+    public CompletableFuture<Completion> complete(final String line, final int caret) {
+        var start = caret;
+        while (start > 0 && !Character.isWhitespace(line.charAt(start - 1))) {
+            start--;
+        }
+        final var word = CharBuffer.wrap(line, start, caret);
+        // One more than the limit tells whether the candidates are all the matches
+        final var candidates = trie.complete(word, limit == Integer.MAX_VALUE ? limit : limit + 1);
+        if (candidates.size() <= limit) {
+            return CompletableFuture.completedFuture(new Completion(start, caret, candidates));
+        }
+        return CompletableFuture.completedFuture(new Completion(start, caret, candidates.subList(0, limit),
+                trie.commonPrefix(word), true));
+    }
+
+    public CompletionTrie getTrie() {
+        return trie;
+    }
+
+}
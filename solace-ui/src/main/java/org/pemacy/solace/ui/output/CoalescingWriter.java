@@ -0,0 +1,219 @@
+package org.pemacy.solace.ui.output;
+
+import org.pemacy.solace.Style;
+import org.pemacy.solace.Writer;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Collects writes from any thread and appends them to a {@link ComponentOutputArea} in a single
+ * document insert per frame.
+ * <p>
+ * Writes are handed over on a lock-free queue, so writers take no lock and never contend with a flush.
+ * The characters waiting to be flushed are bounded: once they reach the bound, a writer waits for the next
+ * flush, or flushes right away when it is the event dispatch thread.
+ */
+public class CoalescingWriter implements Writer<OutputArea> {
+
+    public static final int DEFAULT_FRAMES_PER_SECOND = 60;
+
+    public static final long DEFAULT_MAX_PENDING_CHARS = 1 << 22;
+
+    private static final int RETAINED_BATCH_CAPACITY = 1 << 16;
+    private static final long FULL_PARK_NANOS = 100_000;
+
+    private final ComponentOutputArea target;
+    private final ConcurrentLinkedQueue<Object> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingChars = new AtomicLong();
+    private final long maxPendingChars;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final StringBuilder batch = new StringBuilder();
+    private final StyleRuns batchStyles = new StyleRuns();
+    private final Timer timer;
+    private final long frameNanos;
+    private long lastFlush;
+
+    private volatile long flushCount;
+    private volatile long flushedWrites;
+    private volatile long flushedChars;
+    private volatile long maxBatchChars;
+    private volatile long droppedFrames;
+
+    private CoalescingWriter(final ComponentOutputArea target, final int framesPerSecond,
+            final long maxPendingChars) {
+        if (framesPerSecond < 1) {
+            throw new IllegalArgumentException("framesPerSecond must be positive: " + framesPerSecond);
+        }
+        if (maxPendingChars < 1) {
+            throw new IllegalArgumentException("maxPendingChars must be positive: " + maxPendingChars);
+        }
+        this.target = target;
+        this.maxPendingChars = maxPendingChars;
+        this.frameNanos = 1_000_000_000L / framesPerSecond;
+        this.timer = new Timer(Math.max(1, 1000 / framesPerSecond), null);
+        timer.setCoalesce(true);
+    }
+
+    public static CoalescingWriter attach(final ComponentOutputArea target, final int framesPerSecond) {
+        return attach(target, framesPerSecond, DEFAULT_MAX_PENDING_CHARS);
+    }
+
+    /**
+     * Creates a writer that flushes to the given output area once per frame.
+     *
+     * @param maxPendingChars how many characters may wait for a flush before writers wait for it
+     */
+    public static CoalescingWriter attach(final ComponentOutputArea target, final int framesPerSecond,
+            final long maxPendingChars) {
+        final var writer = new CoalescingWriter(target, framesPerSecond, maxPendingChars);
+        writer.timer.addActionListener(event -> writer.flush());
+        return writer;
+    }
+
+    @Override
+    public Writer<OutputArea> print(final Object content) {
+        final var text = String.valueOf(content);
+        return enqueue(text, text.length());
+    }
+
+    @Override
+    public Writer<OutputArea> print(final Style style, final Object content) {
+        final var text = String.valueOf(content);
+        final var packed = style.pack();
+        return enqueue(packed == 0 ? text : new StyledText(packed, text), text.length());
+    }
+
+    /**
+     * Copies the characters, since the caller may reuse the buffer as soon as this returns.
+     */
+    @Override
+    public Writer<OutputArea> print(final char[] buffer, final int offset, final int length) {
+        return print(new String(buffer, offset, length));
+    }
+
+    @Override
+    public Writer<OutputArea> print(final Style style, final char[] buffer, final int offset, final int length) {
+        return print(style, new String(buffer, offset, length));
+    }
+
+    /**
+     * Appends everything written since the previous frame. Must be called on the event dispatch thread.
+     */
+    public void flush() {
+        final var now = System.nanoTime();
+        var writes = 0;
+        for (Object content; (content = pending.poll()) != null; writes++) {
+            if (content instanceof StyledText styled) {
+                batchStyles.append(styled.text().length(), styled.style());
+                batch.append(styled.text());
+            } else {
+                final var text = (String) content;
+                batchStyles.append(text.length(), 0);
+                batch.append(text);
+            }
+        }
+
+        if (writes == 0) {
+            timer.stop();
+            lastFlush = 0;
+            scheduled.set(false);
+            if (!pending.isEmpty() && scheduled.compareAndSet(false, true)) {
+                timer.start();
+            }
+            return;
+        }
+        pendingChars.addAndGet(-batch.length());
+
+        if (lastFlush != 0) {
+            final var missed = (now - lastFlush) / frameNanos - 1;
+            if (missed > 0) {
+                droppedFrames += missed;
+            }
+        }
+        lastFlush = now;
+
+        target.append(batch, batchStyles);
+
+        flushCount++;
+        flushedWrites += writes;
+        flushedChars += batch.length();
+        maxBatchChars = Math.max(maxBatchChars, batch.length());
+
+        batch.setLength(0);
+        batchStyles.clear();
+        if (batch.capacity() > RETAINED_BATCH_CAPACITY) {
+            batch.trimToSize();
+        }
+    }
+
+    /**
+     * Drops everything written but not yet flushed. Must be called on the event dispatch thread.
+     */
+    public void discard() {
+        var discarded = 0L;
+        for (Object content; (content = pending.poll()) != null; ) {
+            discarded += content instanceof StyledText styled
+                    ? styled.text().length()
+                    : ((String) content).length();
+        }
+        pendingChars.addAndGet(-discarded);
+    }
+
+    public long getFlushCount() {
+        return flushCount;
+    }
+
+    public long getFlushedWrites() {
+        return flushedWrites;
+    }
+
+    public long getFlushedChars() {
+        return flushedChars;
+    }
+
+    public long getMaxBatchChars() {
+        return maxBatchChars;
+    }
+
+    public double getMeanBatchChars() {
+        final var flushes = flushCount;
+        return flushes == 0 ? 0 : (double) flushedChars / flushes;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    @Override
+    public OutputArea getSelf() {
+        return target;
+    }
+
+    private Writer<OutputArea> enqueue(final Object content, final int length) {
+        while (pendingChars.get() >= maxPendingChars) {
+            if (SwingUtilities.isEventDispatchThread()) {
+                flush();
+                break;
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                timer.start();
+            }
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+        }
+        pending.add(content);
+        pendingChars.addAndGet(length);
+        if (scheduled.compareAndSet(false, true)) {
+            timer.start();
+        }
+        return this;
+    }
+
+    private record StyledText(int style, String text) {
+    }
+
+}
@@ -0,0 +1,43 @@
+package org.pemacy.solace.ui.output;
+
+import javax.swing.*;
+import java.awt.*;
+
+public interface ComponentOutputArea extends OutputArea {
+
+    Color SEARCH_HIGHLIGHT = new Color(255, 224, 102);
+
+    JComponent getComponent();
+
+    void append(final CharSequence text);
+
+    default void append(final CharSequence text, final StyleRuns styles) {
+        append(text);
+    }
+
+    /**
+     * Starts a case-insensitive search of the scrollback, replacing any previous one, and highlights the
+     * matches that are visible. Must be called on the event dispatch thread.
+     */
+    Search search(final String query);
+
+    /**
+     * Cancels the current search and removes its highlights. Must be called on the event dispatch thread.
+     */
+    void clearSearch();
+
+    /**
+     * Appends everything printed so far right away rather than at the next frame. Must be called on the
+     * event dispatch thread.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Releases what the output area holds outside the heap, such as spilled scrollback. Called when the
+     * window showing it is disposed; nothing printed afterwards is kept beyond the lines in memory.
+     */
+    default void dispose() {
+    }
+
+}
@@ -0,0 +1,98 @@
+package org.pemacy.solace.ui.output;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.util.Arrays;
+
+/**
+ * Maps characters to glyph codes of a monospaced font once, so rows can be drawn as glyph vectors
+ * without laying out text on every paint.
+ */
+public class GlyphCache {
+
+    private static final int PAGE_SHIFT = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int UNMAPPED = -1;
+
+    private final Font font;
+    private final FontRenderContext renderContext;
+    private final int[][] pages = new int[Character.MAX_VALUE + 1 >> PAGE_SHIFT][];
+    private final int tabSize;
+    private final int spaceGlyph;
+    private int[] row = new int[256];
+
+    public GlyphCache(final Font font, final FontRenderContext renderContext, final int tabSize) {
+        this.font = font;
+        this.renderContext = renderContext;
+        this.tabSize = tabSize;
+        this.spaceGlyph = lookup(' ');
+    }
+
+    public Font getFont() {
+        return font;
+    }
+
+    public FontRenderContext getRenderContext() {
+        return renderContext;
+    }
+
+    public int glyph(final char c) {
+        if (c < ' ' || Character.isSurrogate(c)) {
+            return spaceGlyph;
+        }
+        var page = pages[c >>> PAGE_SHIFT];
+        if (page == null) {
+            page = new int[PAGE_SIZE];
+            Arrays.fill(page, UNMAPPED);
+            pages[c >>> PAGE_SHIFT] = page;
+        }
+        var glyph = page[c & PAGE_SIZE - 1];
+        if (glyph == UNMAPPED) {
+            glyph = lookup(c);
+            page[c & PAGE_SIZE - 1] = glyph;
+        }
+        return glyph;
+    }
+
+    /**
+     * Returns the column after the given characters once tabs are expanded, starting from a column.
+     */
+    public static int columns(final char[] text, final int offset, final int length, final int tabSize,
+                              final int startColumn) {
+        var columns = startColumn;
+        for (var i = offset; i < offset + length; i++) {
+            columns = text[i] == '\t' ? (columns / tabSize + 1) * tabSize : columns + 1;
+        }
+        return columns;
+    }
+
+    /**
+     * Creates a glyph vector for the given characters with one glyph per column, expanding tabs as if the
+     * first character were at the given column.
+     */
+    public GlyphVector layout(final char[] text, final int offset, final int length, final int startColumn) {
+        final var columns = columns(text, offset, length, tabSize, startColumn) - startColumn;
+        if (row.length < columns) {
+            row = new int[Math.max(columns, row.length << 1)];
+        }
+        var column = startColumn;
+        for (var i = offset; i < offset + length; i++) {
+            final var c = text[i];
+            if (c == '\t') {
+                final var stop = (column / tabSize + 1) * tabSize;
+                while (column < stop) {
+                    row[column++ - startColumn] = spaceGlyph;
+                }
+            } else {
+                row[column++ - startColumn] = glyph(c);
+            }
+        }
+        return font.createGlyphVector(renderContext, Arrays.copyOf(row, columns));
+    }
+
+    private int lookup(final char c) {
+        return font.createGlyphVector(renderContext, new char[]{c}).getGlyphCode(0);
+    }
+
+}
@@ -0,0 +1,509 @@
+package org.pemacy.solace.ui.output;
+
+import org.pemacy.solace.Style;
+import org.pemacy.solace.TextColor;
+import org.pemacy.solace.Writer;
+import org.pemacy.solace.io.SpillStore;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Segment;
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An output area that paints only the rows inside the viewport straight from an {@link OutputDocument},
+ * so painting costs the same regardless of how much scrollback is kept.
+ * <p>
+ * Lines are word wrapped to the viewport width. Since wrapping is only known for lines that have been
+ * painted, the scroll range is an upper bound derived from the document length, and scroll positions map
+ * proportionally onto lines, anchored so that the bottom of the range shows the end of the output exactly.
+ * <p>
+ * If the scrollback has a spill directory, evicted lines are written to a {@link SpillStore} and shown
+ * above the lines in memory, read back from disk as they are scrolled into view.
+ */
+public class GridOutputArea implements ComponentOutputArea {
+
+    private static final int TAB_SIZE = 8;
+    private static final int WRAPPED_LINES_PER_WIDTH = 4096;
+    private static final int CACHED_SPILLED_LINES = 256;
+    private static final Color[] PALETTE = Arrays.stream(TextColor.values())
+            .map(color -> new Color(color.getRgb()))
+            .toArray(Color[]::new);
+
+    private final OutputDocument document;
+    private final LineRing lines = new LineRing();
+    private final WrapIndex wrapIndex = new WrapIndex(TAB_SIZE, WRAPPED_LINES_PER_WIDTH);
+    private final StyleRuns styles = new StyleRuns();
+    private final SearchIndex searchIndex;
+    private final Scrollback scrollback;
+    private SpillStore spill;
+    private final Segment evictedText = new Segment();
+    private final int framesPerSecond;
+    private volatile CoalescingWriter writer;
+    private final GridView view;
+    private final JScrollPane scrollPane;
+    private final TailFollower tailFollower;
+    private Search search;
+
+    public GridOutputArea() {
+        this(new ScrollbackBuilder().build());
+    }
+
+    public GridOutputArea(final Scrollback scrollback) {
+        this(scrollback, CoalescingWriter.DEFAULT_FRAMES_PER_SECOND);
+    }
+
+    public GridOutputArea(final Scrollback scrollback, final int framesPerSecond) {
+        if (framesPerSecond < 1) {
+            throw new IllegalArgumentException("framesPerSecond must be positive: " + framesPerSecond);
+        }
+        this.scrollback = scrollback;
+        this.document = new OutputDocument(TextStorage.of(scrollback));
+        this.searchIndex = SearchIndex.attach(document);
+        this.spill = scrollback.spillDirectory().map(SpillStore::new).orElse(null);
+        this.framesPerSecond = framesPerSecond;
+
+        this.view = new GridView(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        view.setBorder(new EmptyBorder(8, 8, 8, 8));
+
+        this.scrollPane = new JScrollPane();
+        scrollPane.setBorder(null);
+        scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+        scrollPane.getViewport().setScrollMode(JViewport.SIMPLE_SCROLL_MODE);
+        scrollPane.setViewportView(view);
+        this.tailFollower = TailFollower.attach(scrollPane);
+    }
+
+    @Override
+    public Writer<OutputArea> print(final Object content) {
+        getWriter().print(content);
+        return this;
+    }
+
+    @Override
+    public Writer<OutputArea> print(final Style style, final Object content) {
+        getWriter().print(style, content);
+        return this;
+    }
+
+    @Override
+    public Writer<OutputArea> print(final char[] content, final int offset, final int length) {
+        getWriter().print(content, offset, length);
+        return this;
+    }
+
+    @Override
+    public Writer<OutputArea> print(final Style style, final char[] content, final int offset, final int length) {
+        getWriter().print(style, content, offset, length);
+        return this;
+    }
+
+    @Override
+    public OutputArea clear() {
+        if (SwingUtilities.isEventDispatchThread()) {
+            getWriter().discard();
+            try {
+                document.remove(0, document.getLength());
+            } catch (final BadLocationException e) {
+                throw new IllegalStateException(e);
+            }
+            lines.clear();
+            wrapIndex.clear();
+            styles.trim(document.toAbsolute(0));
+            if (spill != null) {
+                spill.clear();
+                view.spilledLines.clear();
+            }
+            view.contentChanged();
+        } else {
+            SwingUtilities.invokeLater(this::clear);
+        }
+        return this;
+    }
+
+    @Override
+    public Search search(final String query) {
+        clearSearch();
+        search = new Search(document, searchIndex, query).onMatches(matches -> view.repaint());
+        return search;
+    }
+
+    @Override
+    public void clearSearch() {
+        if (search != null) {
+            search.cancel();
+            search = null;
+            view.repaint();
+        }
+    }
+
+    @Override
+    public void append(final CharSequence text) {
+        styles.append(text.length(), 0);
+        insert(text);
+    }
+
+    @Override
+    public void append(final CharSequence text, final StyleRuns styles) {
+        this.styles.append(styles);
+        insert(text);
+    }
+
+    private void insert(final CharSequence text) {
+        wrapIndex.invalidate(document.getFirstLineNumber() + document.getLineCount() - 1);
+        try {
+            document.insertString(document.getLength(), text.toString(), null);
+            lines.append(text);
+            final var evicted = lines.evict(scrollback.maxLines(), scrollback.maxChars());
+            if (evicted > 0) {
+                if (spill != null) {
+                    document.getText(0, evicted, evictedText);
+                    spill.append(evictedText);
+                }
+                document.remove(0, evicted);
+                styles.trim(document.toAbsolute(0));
+            }
+        } catch (final BadLocationException e) {
+            throw new IllegalStateException(e);
+        }
+        view.contentChanged();
+    }
+
+    /**
+     * Closes the spill store, deleting its files. Lines already spilled are no longer shown.
+     */
+    @Override
+    public void dispose() {
+        if (SwingUtilities.isEventDispatchThread()) {
+            clearSearch();
+            if (spill != null) {
+                spill.close();
+                spill = null;
+                view.spilledLines.clear();
+                view.contentChanged();
+            }
+        } else {
+            SwingUtilities.invokeLater(this::dispose);
+        }
+    }
+
+    @Override
+    public void flush() {
+        getWriter().flush();
+    }
+
+    @Override
+    public JComponent getComponent() {
+        return scrollPane;
+    }
+
+    public TailFollower getTailFollower() {
+        return tailFollower;
+    }
+
+    public OutputDocument getDocument() {
+        return document;
+    }
+
+    public WrapIndex getWrapIndex() {
+        return wrapIndex;
+    }
+
+    /**
+     * Returns the store that evicted lines are spilled to, or {@code null} if the scrollback has no spill
+     * directory or the output area has been disposed.
+     */
+    public SpillStore getSpillStore() {
+        return spill;
+    }
+
+    public long getEvictedLines() {
+        return lines.getEvictedLines();
+    }
+
+    public long getEvictedChars() {
+        return lines.getEvictedChars();
+    }
+
+    public Scrollback getScrollback() {
+        return scrollback;
+    }
+
+    /**
+     * Returns the writer that coalesces prints into frames. It is attached on first use rather than by the
+     * constructor, so that it never flushes into an area that is still being constructed.
+     */
+    public CoalescingWriter getWriter() {
+        var writer = this.writer;
+        if (writer == null) {
+            synchronized (this) {
+                writer = this.writer;
+                if (writer == null) {
+                    writer = CoalescingWriter.attach(this, framesPerSecond);
+                    this.writer = writer;
+                }
+            }
+        }
+        return writer;
+    }
+
+    @Override
+    public OutputArea getSelf() {
+        return this;
+    }
+
+    private class GridView extends JComponent implements Scrollable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient Segment segment = new Segment();
+        private final transient Map<Long, char[]> spilledLines = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, char[]> eldest) {
+                return size() > CACHED_SPILLED_LINES;
+            }
+        };
+        private transient GlyphCache glyphs;
+        private transient GlyphCache boldGlyphs;
+
+        private GridView(final Font font) {
+            setFont(font);
+            setOpaque(true);
+            setBackground(UIManager.getColor("TextArea.background"));
+            setForeground(UIManager.getColor("TextArea.foreground"));
+        }
+
+        private void contentChanged() {
+            revalidate();
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(final Graphics graphics) {
+            final var g = (Graphics2D) graphics.create();
+            try {
+                final var clip = g.getClipBounds();
+                g.setColor(getBackground());
+                g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+                final var desktopHints = (Map<?, ?>) Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+                if (desktopHints != null) {
+                    g.addRenderingHints(desktopHints);
+                }
+                glyphs(g.getFontRenderContext());
+                final var metrics = g.getFontMetrics(getFont());
+                final var rowHeight = metrics.getHeight();
+                final var insets = getInsets();
+                final var visible = getVisibleRect();
+                final var columns = columns();
+
+                final var position = position(visible);
+                var line = (int) position;
+                var y = -(int) ((position - line) * rows(line, columns) * rowHeight);
+                if (visible.y == 0) {
+                    y += insets.top;
+                }
+                // Paint relative to the viewport, since text drawn far down a tall view loses precision
+                g.translate(0, visible.y);
+                clip.translate(0, -visible.y);
+
+                final var spilled = spilled();
+                while (line < lineCount() && y < clip.y + clip.height) {
+                    final var wraps = wraps(line, columns);
+                    final var lineStart = line < spilled ? -1
+                            : document.toAbsolute(document.getLineStartOffset(line - spilled));
+                    for (var row = 0; row <= wraps.length; row++, y += rowHeight) {
+                        if (y + rowHeight <= clip.y) {
+                            continue;
+                        }
+                        final var from = row == 0 ? 0 : wraps[row - 1];
+                        final var to = row == wraps.length ? segment.count : wraps[row];
+                        paintRow(g, metrics, lineStart, from, to, insets.left, y);
+                    }
+                    line++;
+                }
+            } finally {
+                g.dispose();
+            }
+        }
+
+        private void paintRow(final Graphics2D g, final FontMetrics metrics, final long lineStart,
+                              final int from, final int to, final int left, final int top) {
+            final var charWidth = metrics.charWidth('m');
+            final var baseline = top + metrics.getAscent();
+            if (search != null && lineStart >= 0) {
+                paintMatches(g, metrics, lineStart, from, to, left, top);
+            }
+            var run = lineStart < 0 ? -1 : styles.indexOf(lineStart + from);
+            var column = 0;
+            var position = from;
+            while (position < to) {
+                final var runEnd = run < 0 ? to : (int) Math.min(to, styles.end(run) - lineStart);
+                final var style = run < 0 ? 0 : styles.style(run);
+                final var offset = segment.offset + position;
+                final var length = runEnd - position;
+                final var endColumn = GlyphCache.columns(segment.array, offset, length, TAB_SIZE, column);
+                final var x = left + column * charWidth;
+
+                final var background = Style.background(style);
+                if (background != null) {
+                    g.setColor(PALETTE[background.ordinal()]);
+                    g.fillRect(x, top, (endColumn - column) * charWidth, metrics.getHeight());
+                }
+                final var foreground = Style.foreground(style);
+                g.setColor(foreground == null ? getForeground() : PALETTE[foreground.ordinal()]);
+                final var glyphs = Style.bold(style) ? boldGlyphs : this.glyphs;
+                g.drawGlyphVector(glyphs.layout(segment.array, offset, length, column), x, baseline);
+                if (Style.underline(style)) {
+                    g.drawLine(x, baseline + 1, x + (endColumn - column) * charWidth - 1, baseline + 1);
+                }
+
+                column = endColumn;
+                position = runEnd;
+                run = run < 0 || run + 1 >= styles.size() ? -1 : run + 1;
+            }
+        }
+
+        private void paintMatches(final Graphics2D g, final FontMetrics metrics, final long lineStart,
+                                  final int from, final int to, final int left, final int top) {
+            final var charWidth = metrics.charWidth('m');
+            final var length = search.getQuery().length();
+            g.setColor(SEARCH_HIGHLIGHT);
+            for (var match = search.indexOfMatchEndingAfter(lineStart + from); match < search.getMatchCount(); match++) {
+                final var matchStart = search.getMatch(match) - lineStart;
+                if (matchStart >= to) {
+                    break;
+                }
+                final var start = (int) Math.max(from, matchStart);
+                final var end = (int) Math.min(to, matchStart + length);
+                final var startColumn = GlyphCache.columns(segment.array, segment.offset + from, start - from, TAB_SIZE, 0);
+                final var endColumn = GlyphCache.columns(segment.array, segment.offset + start, end - start, TAB_SIZE, startColumn);
+                g.fillRect(left + startColumn * charWidth, top, (endColumn - startColumn) * charWidth, metrics.getHeight());
+            }
+        }
+
+        @Override
+        public Dimension getPreferredSize() {
+            final var insets = getInsets();
+            final var length = document.getLength() + (spill == null ? 0 : spill.getByteCount());
+            final var estimatedRows = lineCount() + length / columns();
+            final var height = insets.top + insets.bottom + estimatedRows * getFontMetrics(getFont()).getHeight();
+            return new Dimension(insets.left + insets.right, (int) Math.min(Integer.MAX_VALUE, height));
+        }
+
+        @Override
+        public Dimension getPreferredScrollableViewportSize() {
+            return getPreferredSize();
+        }
+
+        @Override
+        public int getScrollableUnitIncrement(final Rectangle visible, final int orientation, final int direction) {
+            final var metrics = getFontMetrics(getFont());
+            return orientation == SwingConstants.VERTICAL ? metrics.getHeight() : metrics.charWidth('m');
+        }
+
+        @Override
+        public int getScrollableBlockIncrement(final Rectangle visible, final int orientation, final int direction) {
+            return orientation == SwingConstants.VERTICAL ? visible.height : visible.width;
+        }
+
+        @Override
+        public boolean getScrollableTracksViewportWidth() {
+            return true;
+        }
+
+        @Override
+        public boolean getScrollableTracksViewportHeight() {
+            return getParent() instanceof JViewport viewport && viewport.getHeight() > getPreferredSize().height;
+        }
+
+        /**
+         * Maps the visible rectangle to a fractional line number. The top of the scroll range is the start of
+         * the first line and the bottom is the position at which the last line ends at the bottom edge.
+         */
+        private double position(final Rectangle visible) {
+            final var range = getHeight() - visible.height;
+            if (range <= 0 || visible.y <= 0) {
+                return 0;
+            }
+            final var rowHeight = getFontMetrics(getFont()).getHeight();
+            final var visibleRows = Math.max(1, (visible.height - getInsets().bottom) / rowHeight);
+            final var columns = columns();
+
+            var line = lineCount() - 1;
+            var rows = 0;
+            var end = 0.0;
+            while (line >= 0) {
+                final var lineRows = rows(line, columns);
+                if (rows + lineRows >= visibleRows) {
+                    end = line + (double) (rows + lineRows - visibleRows) / lineRows;
+                    break;
+                }
+                rows += lineRows;
+                line--;
+            }
+            return Math.min(1.0, (double) visible.y / range) * end;
+        }
+
+        private int lineCount() {
+            return spilled() + document.getLineCount();
+        }
+
+        private int spilled() {
+            return spill == null ? 0 : (int) Math.min(Integer.MAX_VALUE - document.getLineCount(), spill.getLineCount());
+        }
+
+        private int columns() {
+            final var insets = getInsets();
+            final var width = getWidth() - insets.left - insets.right;
+            return Math.max(1, width / getFontMetrics(getFont()).charWidth('m'));
+        }
+
+        private int rows(final int line, final int columns) {
+            return wraps(line, columns).length + 1;
+        }
+
+        private int[] wraps(final int line, final int columns) {
+            text(line);
+            return wrapIndex.wraps(document.getFirstLineNumber() - spilled() + line, columns,
+                    segment.array, segment.offset, segment.count);
+        }
+
+        private void glyphs(final FontRenderContext renderContext) {
+            if (glyphs == null || !glyphs.getFont().equals(getFont()) || !glyphs.getRenderContext().equals(renderContext)) {
+                glyphs = new GlyphCache(getFont(), renderContext, TAB_SIZE);
+                boldGlyphs = new GlyphCache(getFont().deriveFont(Font.BOLD), renderContext, TAB_SIZE);
+            }
+        }
+
+        private void text(final int line) {
+            final var spilled = spilled();
+            if (line < spilled) {
+                final var number = spill.getLineCount() - spilled + line;
+                segment.array = spilledLines.computeIfAbsent(number, key -> spill.readLine(key).toCharArray());
+                segment.offset = 0;
+                segment.count = segment.array.length;
+                return;
+            }
+            final var start = document.getLineStartOffset(line - spilled);
+            final var end = document.getLineEndOffset(line - spilled);
+            try {
+                document.getText(start, end - start, segment);
+            } catch (final BadLocationException e) {
+                throw new IllegalStateException(e);
+            }
+            if (segment.count > 0 && segment.array[segment.offset + segment.count - 1] == '\n') {
+                segment.count--;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,140 @@
+package org.pemacy.solace.ui.output;
+
+import org.pemacy.solace.Style;
+import org.pemacy.solace.Writer;
+
+/**
+ * An output area that keeps output in memory without touching AWT or Swing. Text is held in a single
+ * builder, which stores one byte per character as long as the output is Latin-1, and evicted scrollback
+ * is only compacted away once it makes up half of the buffer.
+ */
+public class HeadlessOutputArea implements OutputArea {
+
+    private final LineRing lines = new LineRing();
+    private final Scrollback scrollback;
+    private final StringBuilder buffer = new StringBuilder();
+    private final StyleRuns styles = new StyleRuns();
+    private int start;
+    private long absoluteStart;
+
+    public HeadlessOutputArea() {
+        this(new ScrollbackBuilder().build());
+    }
+
+    public HeadlessOutputArea(final Scrollback scrollback) {
+        this.scrollback = scrollback;
+    }
+
+    @Override
+    public synchronized Writer<OutputArea> print(final Object content) {
+        return append(String.valueOf(content), 0);
+    }
+
+    @Override
+    public synchronized Writer<OutputArea> print(final char[] content, final int offset, final int length) {
+        return append(new String(content, offset, length), 0);
+    }
+
+    @Override
+    public synchronized Writer<OutputArea> print(final Style style, final Object content) {
+        return append(String.valueOf(content), style.pack());
+    }
+
+    @Override
+    public synchronized OutputArea clear() {
+        absoluteStart += buffer.length() - start;
+        buffer.setLength(0);
+        start = 0;
+        lines.clear();
+        styles.trim(absoluteStart);
+        return this;
+    }
+
+    public synchronized String getText() {
+        return buffer.substring(start);
+    }
+
+    /**
+     * Returns the last {@code maxLines} lines of output, found by scanning backwards from the end.
+     */
+    public synchronized String getTail(final int maxLines) {
+        return buffer.substring(tailStart(maxLines));
+    }
+
+    /**
+     * Returns the last {@code maxLines} lines of output and replaces the contents of {@code tailStyles} with
+     * their styles, relative to the start of the returned text.
+     */
+    public synchronized String getTail(final int maxLines, final StyleRuns tailStyles) {
+        final var from = tailStart(maxLines);
+        tailStyles.clear();
+        final var absoluteFrom = absoluteStart + from - start;
+        var position = absoluteFrom;
+        for (var run = styles.indexOf(absoluteFrom); run >= 0 && run < styles.size(); run++) {
+            final var runEnd = styles.end(run);
+            tailStyles.append((int) (runEnd - position), styles.style(run));
+            position = runEnd;
+        }
+        return buffer.substring(from);
+    }
+
+    public synchronized Style getStyleAt(final int offset) {
+        return Style.unpack(styles.styleAt(absoluteStart + offset));
+    }
+
+    private int tailStart(final int maxLines) {
+        var from = buffer.length();
+        if (from > start && buffer.charAt(from - 1) == '\n') {
+            from--;
+        }
+        for (var found = 0; from > start; from--) {
+            if (buffer.charAt(from - 1) == '\n' && ++found == maxLines) {
+                break;
+            }
+        }
+        return from;
+    }
+
+    public synchronized int getLength() {
+        return buffer.length() - start;
+    }
+
+    public synchronized int getLineCount() {
+        return lines.getLineCount();
+    }
+
+    public synchronized long getEvictedLines() {
+        return lines.getEvictedLines();
+    }
+
+    public synchronized long getEvictedChars() {
+        return lines.getEvictedChars();
+    }
+
+    public Scrollback getScrollback() {
+        return scrollback;
+    }
+
+    @Override
+    public OutputArea getSelf() {
+        return this;
+    }
+
+    private Writer<OutputArea> append(final CharSequence text, final int style) {
+        buffer.append(text);
+        styles.append(text.length(), style);
+        lines.append(text);
+        final var evicted = lines.evict(scrollback.maxLines(), scrollback.maxChars());
+        if (evicted > 0) {
+            start += evicted;
+            absoluteStart += evicted;
+            styles.trim(absoluteStart);
+        }
+        if (start > buffer.length() >> 1) {
+            buffer.delete(0, start);
+            start = 0;
+        }
+        return this;
+    }
+
+}
@@ -0,0 +1,98 @@
+package org.pemacy.solace.ui.output;
+
+import javax.swing.text.Segment;
+
+/**
+ * Stores text in fixed-size {@code char[]} chunks held in a ring, so appending and discarding a prefix
+ * never copy, and text within a chunk is read without copying at all.
+ */
+public class HeapTextStorage implements TextStorage {
+
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private char[][] chunks = new char[16][];
+    private int chunkHead;
+    private int chunkCount;
+    private long chunkBase;
+    private long end;
+
+    @Override
+    public void append(final String text) {
+        final var length = text.length();
+        var copied = 0;
+        while (copied < length) {
+            final var within = (int) (end & CHUNK_MASK);
+            final var count = Math.min(CHUNK_SIZE - within, length - copied);
+            text.getChars(copied, copied + count, writableChunk(), within);
+            copied += count;
+            end += count;
+        }
+    }
+
+    @Override
+    public void discard(final long offset) {
+        while (chunkCount > 0 && chunkBase + CHUNK_SIZE <= offset) {
+            chunks[chunkHead] = null;
+            chunkHead = (chunkHead + 1) & (chunks.length - 1);
+            chunkCount--;
+            chunkBase += CHUNK_SIZE;
+        }
+    }
+
+    @Override
+    public void getText(final long from, final long to, final Segment segment) {
+        if (from < to && ((from >> CHUNK_SHIFT) == ((to - 1) >> CHUNK_SHIFT) || segment.isPartialReturn())) {
+            final var chunkEnd = ((from >> CHUNK_SHIFT) + 1) << CHUNK_SHIFT;
+            segment.array = chunkAt(from);
+            segment.offset = (int) (from & CHUNK_MASK);
+            segment.count = (int) (Math.min(chunkEnd, to) - from);
+            return;
+        }
+        final var copy = new char[(int) (to - from)];
+        getChars(from, to, copy, 0);
+        segment.array = copy;
+        segment.offset = 0;
+        segment.count = copy.length;
+    }
+
+    @Override
+    public void getChars(final long from, final long to, final char[] destination, final int offset) {
+        var position = from;
+        while (position < to) {
+            final var within = (int) (position & CHUNK_MASK);
+            final var count = (int) Math.min(CHUNK_SIZE - within, to - position);
+            System.arraycopy(chunkAt(position), within, destination, offset + (int) (position - from), count);
+            position += count;
+        }
+    }
+
+    private char[] chunkAt(final long position) {
+        final var index = (int) ((position - chunkBase) >> CHUNK_SHIFT);
+        return chunks[(chunkHead + index) & (chunks.length - 1)];
+    }
+
+    private char[] writableChunk() {
+        if (chunkCount == 0) {
+            chunkBase = end & ~CHUNK_MASK;
+        }
+        final var index = (int) ((end - chunkBase) >> CHUNK_SHIFT);
+        if (index < chunkCount) {
+            return chunks[(chunkHead + index) & (chunks.length - 1)];
+        }
+        if (chunkCount == chunks.length) {
+            final var grown = new char[chunks.length << 1][];
+            final var tail = chunks.length - chunkHead;
+            System.arraycopy(chunks, chunkHead, grown, 0, tail);
+            System.arraycopy(chunks, 0, grown, tail, chunkHead);
+            chunks = grown;
+            chunkHead = 0;
+        }
+        final var chunk = new char[CHUNK_SIZE];
+        chunks[(chunkHead + chunkCount) & (chunks.length - 1)] = chunk;
+        chunkCount++;
+        return chunk;
+    }
+
+}
@@ -0,0 +1,105 @@
+package org.pemacy.solace.ui.output;
+
+/**
+ * Tracks the length of every line in an output document so that the oldest lines can be evicted
+ * without querying the document's element tree.
+ */
+public final class LineRing {
+
+    private int[] lengths = new int[64];
+    private int head;
+    private int size;
+    private int chars;
+    private boolean open;
+
+    private long evictedLines;
+    private long evictedChars;
+
+    public void append(final CharSequence text) {
+        final var length = text.length();
+        var start = 0;
+        for (var i = 0; i < length; i++) {
+            if (text.charAt(i) == '\n') {
+                extendLine(i + 1 - start);
+                open = false;
+                start = i + 1;
+            }
+        }
+        if (start < length) {
+            extendLine(length - start);
+            open = true;
+        }
+    }
+
+    /**
+     * Evicts the oldest complete lines until both limits are satisfied.
+     *
+     * @return the number of characters to remove from the start of the document
+     */
+    public int evict(final int maxLines, final int maxChars) {
+        var removed = 0;
+        while ((size > maxLines || chars > maxChars) && (size > 1 || !open)) {
+            final var length = lengths[head];
+            head = (head + 1) & (lengths.length - 1);
+            size--;
+            chars -= length;
+            removed += length;
+            evictedLines++;
+        }
+        evictedChars += removed;
+        return removed;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+        chars = 0;
+        open = false;
+    }
+
+    public int getLineCount() {
+        return size;
+    }
+
+    public int getCharCount() {
+        return chars;
+    }
+
+    public int getLineLength(final int line) {
+        if (line < 0 || line >= size) {
+            throw new IndexOutOfBoundsException(line);
+        }
+        return lengths[(head + line) & (lengths.length - 1)];
+    }
+
+    public long getEvictedLines() {
+        return evictedLines;
+    }
+
+    public long getEvictedChars() {
+        return evictedChars;
+    }
+
+    private void extendLine(final int length) {
+        if (open) {
+            lengths[(head + size - 1) & (lengths.length - 1)] += length;
+        } else {
+            if (size == lengths.length) {
+                grow();
+            }
+            lengths[(head + size) & (lengths.length - 1)] = length;
+            size++;
+        }
+        chars += length;
+    }
+
+    private void grow() {
+        final var grown = new int[lengths.length << 1];
+        final var tail = lengths.length - head;
+        System.arraycopy(lengths, head, grown, 0, tail);
+        System.arraycopy(lengths, 0, grown, tail, head);
+        lengths = grown;
+        head = 0;
+    }
+
+}
@@ -0,0 +1,147 @@
+package org.pemacy.solace.ui.output;
+
+import javax.swing.text.Segment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Stores text outside the Java heap in direct buffers, so that a large scrollback adds almost nothing to
+ * the old generation and to the work of the garbage collector. Only the on-heap ring of chunk references
+ * grows with the amount of text, and text is decoded into short-lived arrays when it is read, which in
+ * practice means only the lines being painted.
+ * <p>
+ * Like compact strings, each chunk holds one byte per character until a character above {@code U+00FF}
+ * is appended to it, at which point that chunk alone is widened to two bytes per character.
+ */
+public class OffHeapTextStorage implements TextStorage {
+
+    private static final int CHUNK_SHIFT = 18;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private ByteBuffer[] chunks = new ByteBuffer[16];
+    private boolean[] wide = new boolean[16];
+    private int chunkHead;
+    private int chunkCount;
+    private long chunkBase;
+    private long end;
+    private long allocatedBytes;
+
+    @Override
+    public void append(final String text) {
+        final var length = text.length();
+        var index = writableChunk();
+        for (var i = 0; i < length; i++, end++) {
+            if ((end & CHUNK_MASK) == 0 && i > 0) {
+                index = writableChunk();
+            }
+            final var c = text.charAt(i);
+            final var within = (int) (end & CHUNK_MASK);
+            if (c > 0xff && !wide[index]) {
+                widen(index);
+            }
+            if (wide[index]) {
+                chunks[index].putChar(within << 1, c);
+            } else {
+                chunks[index].put(within, (byte) c);
+            }
+        }
+    }
+
+    @Override
+    public void discard(final long offset) {
+        while (chunkCount > 0 && chunkBase + CHUNK_SIZE <= offset) {
+            allocatedBytes -= chunks[chunkHead].capacity();
+            chunks[chunkHead] = null;
+            chunkHead = (chunkHead + 1) & (chunks.length - 1);
+            chunkCount--;
+            chunkBase += CHUNK_SIZE;
+        }
+    }
+
+    @Override
+    public void getText(final long from, final long to, final Segment segment) {
+        final var copy = new char[(int) (to - from)];
+        getChars(from, to, copy, 0);
+        segment.array = copy;
+        segment.offset = 0;
+        segment.count = copy.length;
+    }
+
+    @Override
+    public void getChars(final long from, final long to, final char[] destination, final int offset) {
+        var position = from;
+        var target = offset;
+        while (position < to) {
+            final var index = indexOf(position);
+            final var chunk = chunks[index];
+            final var within = (int) (position & CHUNK_MASK);
+            final var count = (int) Math.min(CHUNK_SIZE - within, to - position);
+            if (wide[index]) {
+                chunk.asCharBuffer().get(within, destination, target, count);
+            } else {
+                for (var i = 0; i < count; i++) {
+                    destination[target + i] = (char) (chunk.get(within + i) & 0xff);
+                }
+            }
+            position += count;
+            target += count;
+        }
+    }
+
+    /**
+     * Returns the number of bytes of direct memory held for text that has not been discarded.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    private int indexOf(final long position) {
+        return (chunkHead + (int) ((position - chunkBase) >> CHUNK_SHIFT)) & (chunks.length - 1);
+    }
+
+    private void widen(final int index) {
+        final var narrow = chunks[index];
+        final var widened = allocate(CHUNK_SIZE << 1);
+        final var filled = (int) (end & CHUNK_MASK);
+        for (var i = 0; i < filled; i++) {
+            widened.putChar(i << 1, (char) (narrow.get(i) & 0xff));
+        }
+        allocatedBytes -= narrow.capacity();
+        chunks[index] = widened;
+        wide[index] = true;
+    }
+
+    private int writableChunk() {
+        if (chunkCount == 0) {
+            chunkBase = end & ~CHUNK_MASK;
+        }
+        final var offset = (int) ((end - chunkBase) >> CHUNK_SHIFT);
+        if (offset < chunkCount) {
+            return (chunkHead + offset) & (chunks.length - 1);
+        }
+        if (chunkCount == chunks.length) {
+            final var grownChunks = new ByteBuffer[chunks.length << 1];
+            final var grownWide = new boolean[wide.length << 1];
+            final var tail = chunks.length - chunkHead;
+            System.arraycopy(chunks, chunkHead, grownChunks, 0, tail);
+            System.arraycopy(chunks, 0, grownChunks, tail, chunkHead);
+            System.arraycopy(wide, chunkHead, grownWide, 0, tail);
+            System.arraycopy(wide, 0, grownWide, tail, chunkHead);
+            chunks = grownChunks;
+            wide = grownWide;
+            chunkHead = 0;
+        }
+        final var index = (chunkHead + chunkCount) & (chunks.length - 1);
+        chunks[index] = allocate(CHUNK_SIZE);
+        wide[index] = false;
+        chunkCount++;
+        return index;
+    }
+
+    private ByteBuffer allocate(final int capacity) {
+        allocatedBytes += capacity;
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+    }
+
+}
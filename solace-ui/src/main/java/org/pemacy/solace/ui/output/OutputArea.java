@@ -0,0 +1,9 @@
+package org.pemacy.solace.ui.output;
+
+import org.pemacy.solace.Writer;
+
+public interface OutputArea extends Writer<OutputArea> {
+
+    OutputArea clear();
+
+}
@@ -0,0 +1,488 @@
+package org.pemacy.solace.ui.output;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.EventListenerList;
+import javax.swing.event.UndoableEditListener;
+import javax.swing.text.*;
+import java.util.Arrays;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An append-only document for console output. Text is kept in a {@link TextStorage} and lines are indexed
+ * by their absolute start offset, so appending, truncating the start of the document and finding the
+ * line of an offset never copy or walk the whole document. Unlike {@code PlainDocument} it keeps no
+ * element object per line; line elements are created on demand.
+ * <p>
+ * Only appends and removal of a prefix are supported. The document must only be modified on the event
+ * dispatch thread, but other threads may read it inside {@link #render}, which holds off modification.
+ */
+public class OutputDocument implements Document {
+
+    private final EventListenerList listeners = new EventListenerList();
+    private final Dictionary<Object, Object> properties = new Hashtable<>();
+    private final Root root = new Root();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Position startPosition = () -> 0;
+    private final Position endPosition = () -> getLength() + 1;
+    private final TextStorage storage;
+
+    private long[] lineStarts = new long[64];
+    private int lineHead;
+    private int lineCount = 1;
+    private long firstLineNumber;
+
+    private long start;
+    private long end;
+
+    public OutputDocument() {
+        this(new HeapTextStorage());
+    }
+
+    public OutputDocument(final TextStorage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public int getLength() {
+        return (int) (end - start);
+    }
+
+    /**
+     * Converts a document offset to an offset counted from the very first character ever appended.
+     */
+    public long toAbsolute(final int offset) {
+        return start + offset;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Returns the number of lines removed from the start of the document, which is also the absolute
+     * number of its first line.
+     */
+    public long getFirstLineNumber() {
+        return firstLineNumber;
+    }
+
+    public int getLineOfOffset(final int offset) {
+        return root.getElementIndex(offset);
+    }
+
+    public int getLineStartOffset(final int line) {
+        return (int) (Math.max(lineStart(line), start) - start);
+    }
+
+    public int getLineEndOffset(final int line) {
+        return line == lineCount - 1 ? getLength() : getLineStartOffset(line + 1);
+    }
+
+    @Override
+    public void insertString(final int offset, final String text, final AttributeSet attributes)
+            throws BadLocationException {
+        if (offset != getLength()) {
+            throw new BadLocationException("Output can only be appended", offset);
+        }
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+
+        final var lastLine = lineCount - 1;
+        final var length = text.length();
+        lock.writeLock().lock();
+        try {
+            storage.append(text);
+            for (var i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1)) {
+                addLine(end + i + 1);
+            }
+            end += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        ElementChange change = null;
+        if (lineCount - 1 > lastLine) {
+            final var added = new Element[lineCount - lastLine];
+            for (var i = 0; i < added.length; i++) {
+                added[i] = root.getElement(lastLine + i);
+            }
+            final var removed = new Element[]{new Line(lineStart(lastLine), -1)};
+            change = new ElementChange(lastLine, removed, added);
+        }
+
+        final var event = new Event(offset, length, DocumentEvent.EventType.INSERT, change);
+        for (final var listener : listeners.getListeners(DocumentListener.class)) {
+            listener.insertUpdate(event);
+        }
+    }
+
+    @Override
+    public void remove(final int offset, final int length) throws BadLocationException {
+        if (length == 0) {
+            return;
+        }
+        if (offset != 0 || length < 0 || length > getLength()) {
+            throw new BadLocationException("Only a prefix of the output can be removed", offset);
+        }
+
+        final var cut = start + length;
+        var removedLines = 0;
+        while (removedLines < lineCount - 1 && lineStart(removedLines + 1) <= cut) {
+            removedLines++;
+        }
+
+        ElementChange change = null;
+        if (removedLines > 0) {
+            final var removed = new Element[removedLines];
+            for (var i = 0; i < removedLines; i++) {
+                removed[i] = root.getElement(i);
+            }
+            change = new ElementChange(0, removed, new Element[0]);
+        }
+
+        lock.writeLock().lock();
+        try {
+            lineHead = (lineHead + removedLines) & (lineStarts.length - 1);
+            lineCount -= removedLines;
+            firstLineNumber += removedLines;
+            start = cut;
+            storage.discard(start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        final var event = new Event(offset, length, DocumentEvent.EventType.REMOVE, change);
+        for (final var listener : listeners.getListeners(DocumentListener.class)) {
+            listener.removeUpdate(event);
+        }
+    }
+
+    @Override
+    public String getText(final int offset, final int length) throws BadLocationException {
+        final var segment = new Segment();
+        getText(offset, length, segment);
+        return segment.toString();
+    }
+
+    @Override
+    public void getText(final int offset, final int length, final Segment text) throws BadLocationException {
+        if (offset < 0 || length < 0 || offset + length > getLength() + 1) {
+            throw new BadLocationException("Invalid range " + offset + "+" + length, offset);
+        }
+        final var from = start + offset;
+        final var to = from + length;
+        if (length > 0 && from < end && (to <= end || text.isPartialReturn())) {
+            storage.getText(from, Math.min(to, end), text);
+            return;
+        }
+
+        final var copy = new char[length];
+        storage.getChars(from, Math.min(to, end), copy, 0);
+        if (to > end) {
+            copy[length - 1] = '\n';
+        }
+        text.array = copy;
+        text.offset = 0;
+        text.count = length;
+    }
+
+    @Override
+    public Position createPosition(final int offset) throws BadLocationException {
+        if (offset < 0 || offset > getLength() + 1) {
+            throw new BadLocationException("Invalid position", offset);
+        }
+        final var absolute = start + offset;
+        return () -> (int) (Math.max(absolute, start) - start);
+    }
+
+    @Override
+    public Position getStartPosition() {
+        return startPosition;
+    }
+
+    @Override
+    public Position getEndPosition() {
+        return endPosition;
+    }
+
+    @Override
+    public Element[] getRootElements() {
+        return new Element[]{root};
+    }
+
+    @Override
+    public Element getDefaultRootElement() {
+        return root;
+    }
+
+    @Override
+    public void render(final Runnable runnable) {
+        lock.readLock().lock();
+        try {
+            runnable.run();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Object getProperty(final Object key) {
+        return properties.get(key);
+    }
+
+    @Override
+    public void putProperty(final Object key, final Object value) {
+        if (value == null) {
+            properties.remove(key);
+        } else {
+            properties.put(key, value);
+        }
+    }
+
+    @Override
+    public void addDocumentListener(final DocumentListener listener) {
+        listeners.add(DocumentListener.class, listener);
+    }
+
+    @Override
+    public void removeDocumentListener(final DocumentListener listener) {
+        listeners.remove(DocumentListener.class, listener);
+    }
+
+    @Override
+    public void addUndoableEditListener(final UndoableEditListener listener) {
+        listeners.add(UndoableEditListener.class, listener);
+    }
+
+    @Override
+    public void removeUndoableEditListener(final UndoableEditListener listener) {
+        listeners.remove(UndoableEditListener.class, listener);
+    }
+
+    private long lineStart(final int line) {
+        return lineStarts[(lineHead + line) & (lineStarts.length - 1)];
+    }
+
+    private void addLine(final long lineStart) {
+        if (lineCount == lineStarts.length) {
+            final var grown = new long[lineStarts.length << 1];
+            final var tail = lineStarts.length - lineHead;
+            System.arraycopy(lineStarts, lineHead, grown, 0, tail);
+            System.arraycopy(lineStarts, 0, grown, tail, lineHead);
+            lineStarts = grown;
+            lineHead = 0;
+        }
+        lineStarts[(lineHead + lineCount) & (lineStarts.length - 1)] = lineStart;
+        lineCount++;
+    }
+
+    private abstract class AbstractElement implements Element {
+
+        @Override
+        public Document getDocument() {
+            return OutputDocument.this;
+        }
+
+        @Override
+        public AttributeSet getAttributes() {
+            return SimpleAttributeSet.EMPTY;
+        }
+
+    }
+
+    private final class Root extends AbstractElement {
+
+        @Override
+        public Element getParentElement() {
+            return null;
+        }
+
+        @Override
+        public String getName() {
+            return AbstractDocument.ParagraphElementName;
+        }
+
+        @Override
+        public int getStartOffset() {
+            return 0;
+        }
+
+        @Override
+        public int getEndOffset() {
+            return getLength() + 1;
+        }
+
+        @Override
+        public int getElementIndex(final int offset) {
+            final var position = start + offset;
+            var low = 0;
+            var high = lineCount - 1;
+            while (low < high) {
+                final var middle = (low + high + 1) >>> 1;
+                if (lineStart(middle) <= position) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return low;
+        }
+
+        @Override
+        public int getElementCount() {
+            return lineCount;
+        }
+
+        @Override
+        public Element getElement(final int index) {
+            if (index < 0 || index >= lineCount) {
+                return null;
+            }
+            return new Line(lineStart(index), index == lineCount - 1 ? -1 : lineStart(index + 1));
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return false;
+        }
+
+    }
+
+    private final class Line extends AbstractElement {
+
+        private final long lineStart;
+        private final long lineEnd;
+
+        private Line(final long lineStart, final long lineEnd) {
+            this.lineStart = lineStart;
+            this.lineEnd = lineEnd;
+        }
+
+        @Override
+        public Element getParentElement() {
+            return root;
+        }
+
+        @Override
+        public String getName() {
+            return AbstractDocument.ContentElementName;
+        }
+
+        @Override
+        public int getStartOffset() {
+            return (int) (Math.max(lineStart, start) - start);
+        }
+
+        @Override
+        public int getEndOffset() {
+            return lineEnd < 0 ? getLength() + 1 : (int) (Math.max(lineEnd, start) - start);
+        }
+
+        @Override
+        public int getElementIndex(final int offset) {
+            return -1;
+        }
+
+        @Override
+        public int getElementCount() {
+            return 0;
+        }
+
+        @Override
+        public Element getElement(final int index) {
+            return null;
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return true;
+        }
+
+    }
+
+    private final class ElementChange implements DocumentEvent.ElementChange {
+
+        private final int index;
+        private final Element[] removed;
+        private final Element[] added;
+
+        private ElementChange(final int index, final Element[] removed, final Element[] added) {
+            this.index = index;
+            this.removed = removed;
+            this.added = added;
+        }
+
+        @Override
+        public Element getElement() {
+            return root;
+        }
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public Element[] getChildrenRemoved() {
+            return removed;
+        }
+
+        @Override
+        public Element[] getChildrenAdded() {
+            return added;
+        }
+
+        @Override
+        public String toString() {
+            return "ElementChange[" + index + ", -" + removed.length + ", +" + Arrays.toString(added) + "]";
+        }
+
+    }
+
+    private final class Event implements DocumentEvent {
+
+        private final int offset;
+        private final int length;
+        private final EventType type;
+        private final ElementChange change;
+
+        private Event(final int offset, final int length, final EventType type, final ElementChange change) {
+            this.offset = offset;
+            this.length = length;
+            this.type = type;
+            this.change = change;
+        }
+
+        @Override
+        public int getOffset() {
+            return offset;
+        }
+
+        @Override
+        public int getLength() {
+            return length;
+        }
+
+        @Override
+        public Document getDocument() {
+            return OutputDocument.this;
+        }
+
+        @Override
+        public EventType getType() {
+            return type;
+        }
+
+        @Override
+        public DocumentEvent.ElementChange getChange(final Element element) {
+            return element == root ? change : null;
+        }
+
+    }
+
+}
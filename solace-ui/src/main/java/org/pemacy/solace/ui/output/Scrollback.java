@@ -0,0 +1,54 @@
+package org.pemacy.solace.ui.output;
+
+import org.immutables.value.Value;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+@Value.Immutable
+@Value.Style(visibility = Value.Style.ImplementationVisibility.PRIVATE)
+public interface Scrollback {
+
+    @Value.Default
+    default int maxLines() {
+        return 10_000;
+    }
+
+    @Value.Default
+    default int maxChars() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Whether output text is kept outside the Java heap, which keeps a large scrollback from growing the
+     * old generation at the cost of decoding text each time it is painted.
+     */
+    @Value.Default
+    default boolean offHeap() {
+        return false;
+    }
+
+    /**
+     * A directory to which evicted lines are spilled, so that the grid output area can scroll back through
+     * all output without keeping it in memory.
+     */
+    Optional<Path> spillDirectory();
+
+    @Value.Check
+    default void check() {
+        if (maxLines() < 1) {
+            throw new IllegalArgumentException("maxLines must be positive: " + maxLines());
+        }
+        if (maxChars() < 1) {
+            throw new IllegalArgumentException("maxChars must be positive: " + maxChars());
+        }
+    }
+
+    static Scrollback unbounded() {
+        return new ScrollbackBuilder()
+                .maxLines(Integer.MAX_VALUE)
+                .maxChars(Integer.MAX_VALUE)
+                .build();
+    }
+
+}
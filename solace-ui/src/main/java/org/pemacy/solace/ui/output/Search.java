@@ -0,0 +1,194 @@
+package org.pemacy.solace.ui.output;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Segment;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * A case-insensitive search of an {@link OutputDocument} that runs on a background thread. Candidate
+ * blocks are taken from a {@link SearchIndex} and read from the document under its read lock, one block
+ * at a time, so output keeps flowing while a search runs.
+ * <p>
+ * Matches are absolute offsets in ascending order. They are published to listeners in batches on the
+ * event dispatch thread as they are found, and all other methods must also be called on that thread.
+ */
+public class Search {
+
+    private static final int PUBLISH_MATCHES = 256;
+    private static final long PUBLISH_NANOS = 50_000_000L;
+    private static final ExecutorService SEARCHES = Executors.newSingleThreadExecutor(runnable -> {
+        final var thread = new Thread(runnable, "solace-output-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final OutputDocument document;
+    private final SearchIndex index;
+    private final String query;
+    private final char[] folded;
+    private final List<Consumer<long[]>> listeners = new ArrayList<>();
+    private final Segment segment = new Segment();
+    private volatile boolean cancelled;
+
+    private long[] found = new long[16];
+    private int foundCount;
+    private long lastMatchEnd = Long.MIN_VALUE;
+
+    private long[] matches = new long[16];
+    private int matchCount;
+    private boolean done;
+
+    Search(final OutputDocument document, final SearchIndex index, final String query) {
+        if (query.isEmpty()) {
+            throw new IllegalArgumentException("Empty search query");
+        }
+        this.document = document;
+        this.index = index;
+        this.query = query;
+        this.folded = new char[query.length()];
+        for (var i = 0; i < folded.length; i++) {
+            folded[i] = SearchIndex.fold(query.charAt(i));
+        }
+        SEARCHES.execute(this::run);
+    }
+
+    /**
+     * Adds a listener that is called on the event dispatch thread with each batch of matches found.
+     */
+    public Search onMatches(final Consumer<long[]> listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public int getMatchCount() {
+        return matchCount;
+    }
+
+    public long getMatch(final int match) {
+        if (match < 0 || match >= matchCount) {
+            throw new IndexOutOfBoundsException(match);
+        }
+        return matches[match];
+    }
+
+    /**
+     * Returns the index of the first match that ends after the given absolute offset, or the match count
+     * if there is none.
+     */
+    public int indexOfMatchEndingAfter(final long offset) {
+        var low = 0;
+        var high = matchCount;
+        while (low < high) {
+            final var middle = (low + high) >>> 1;
+            if (matches[middle] + query.length() <= offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void run() {
+        final var hashes = SearchIndex.hashes(new String(folded));
+        var lastPublish = System.nanoTime();
+        final var endBlock = index.getEndBlock();
+        for (var block = index.getFirstBlock(); block < endBlock && !cancelled; block++) {
+            if (!index.mayMatch(block, hashes, folded.length)) {
+                continue;
+            }
+            final var blockStart = block << SearchIndex.BLOCK_SHIFT;
+            document.render(() -> scan(blockStart));
+
+            final var now = System.nanoTime();
+            if (foundCount >= PUBLISH_MATCHES || foundCount > 0 && now - lastPublish >= PUBLISH_NANOS) {
+                publish(false);
+                lastPublish = now;
+            }
+        }
+        publish(true);
+    }
+
+    /**
+     * Finds the matches that start in the block at the given absolute offset. Must be called while
+     * holding the document's read lock.
+     */
+    private void scan(final long blockStart) {
+        final var documentStart = document.toAbsolute(0);
+        final var from = Math.max(Math.max(blockStart, documentStart), lastMatchEnd);
+        final var to = Math.min(blockStart + SearchIndex.BLOCK_SIZE + folded.length - 1,
+                documentStart + document.getLength());
+        if (to - from < folded.length) {
+            return;
+        }
+        try {
+            document.getText((int) (from - documentStart), (int) (to - from), segment);
+        } catch (final BadLocationException e) {
+            throw new IllegalStateException(e);
+        }
+        final var last = Math.min(to - folded.length, blockStart + SearchIndex.BLOCK_SIZE - 1);
+        for (var position = from; position <= last; position++) {
+            if (matches((int) (position - from))) {
+                if (foundCount == found.length) {
+                    found = Arrays.copyOf(found, found.length << 1);
+                }
+                found[foundCount++] = position;
+                lastMatchEnd = position + folded.length;
+                position = lastMatchEnd - 1;
+            }
+        }
+    }
+
+    private boolean matches(final int offset) {
+        for (var i = 0; i < folded.length; i++) {
+            if (SearchIndex.fold(segment.array[segment.offset + offset + i]) != folded[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void publish(final boolean last) {
+        final var batch = Arrays.copyOf(found, foundCount);
+        foundCount = 0;
+        SwingUtilities.invokeLater(() -> {
+            if (cancelled) {
+                return;
+            }
+            if (matchCount + batch.length > matches.length) {
+                matches = Arrays.copyOf(matches, Math.max(matches.length << 1, matchCount + batch.length));
+            }
+            System.arraycopy(batch, 0, matches, matchCount, batch.length);
+            matchCount += batch.length;
+            done = last;
+            if (batch.length > 0 || last) {
+                for (final var listener : listeners) {
+                    listener.accept(batch);
+                }
+            }
+        });
+    }
+
+}
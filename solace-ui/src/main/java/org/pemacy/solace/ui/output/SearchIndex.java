@@ -0,0 +1,202 @@
+package org.pemacy.solace.ui.output;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Segment;
+import java.util.Arrays;
+
+/**
+ * A search index over an {@link OutputDocument}, kept up to date as output is appended. The text is
+ * split into blocks of {@value #BLOCK_SIZE} characters, and each block has a Bloom filter of the
+ * case-folded trigrams that start in it. A search only reads the blocks whose filters may contain every
+ * trigram of the query, which for most queries is a small fraction of the scrollback.
+ * <p>
+ * The index is updated on the event dispatch thread and may be queried from any thread.
+ */
+public class SearchIndex implements DocumentListener {
+
+    static final int BLOCK_SHIFT = 12;
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    private static final int FILTER_BITS_SHIFT = 12;
+    private static final int FILTER_LONGS = (1 << FILTER_BITS_SHIFT) >> 6;
+    private static final int FILTER_MASK = (1 << FILTER_BITS_SHIFT) - 1;
+
+    private final OutputDocument document;
+    private final Segment segment = new Segment();
+
+    private long[] filters = new long[16 * FILTER_LONGS];
+    private int head;
+    private int count;
+    private long firstBlock;
+    private long end;
+    private char previous;
+    private char beforePrevious;
+
+    private SearchIndex(final OutputDocument document) {
+        this.document = document;
+        this.end = document.toAbsolute(0);
+        segment.setPartialReturn(true);
+    }
+
+    /**
+     * Indexes the text of the document and keeps the index up to date as the document changes.
+     */
+    public static SearchIndex attach(final OutputDocument document) {
+        final var index = new SearchIndex(document);
+        document.addDocumentListener(index);
+        index.insertUpdate(0, document.getLength());
+        return index;
+    }
+
+    /**
+     * Returns the first block that has not been discarded.
+     */
+    public synchronized long getFirstBlock() {
+        return firstBlock;
+    }
+
+    /**
+     * Returns the block after the last one that holds text.
+     */
+    public synchronized long getEndBlock() {
+        return firstBlock + count;
+    }
+
+    /**
+     * Returns whether a match of a query with the given trigram hashes could start in the given block.
+     */
+    public synchronized boolean mayMatch(final long block, final long[] hashes, final int queryLength) {
+        if (block < firstBlock || block >= firstBlock + count) {
+            return false;
+        }
+        final var spansNext = queryLength <= BLOCK_SIZE && block + 1 < firstBlock + count;
+        for (var i = 0; i < hashes.length; i++) {
+            if (!contains(block, hashes[i]) && (!spansNext || !contains(block + 1, hashes[i]))) {
+                return false;
+            }
+            if (queryLength > BLOCK_SIZE) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void insertUpdate(final DocumentEvent event) {
+        insertUpdate(event.getOffset(), event.getLength());
+    }
+
+    @Override
+    public synchronized void removeUpdate(final DocumentEvent event) {
+        final var block = document.toAbsolute(0) >> BLOCK_SHIFT;
+        while (count > 0 && firstBlock < block) {
+            head = (head + 1) & (capacity() - 1);
+            count--;
+            firstBlock++;
+        }
+        if (count == 0) {
+            firstBlock = block;
+        }
+    }
+
+    @Override
+    public void changedUpdate(final DocumentEvent event) {
+    }
+
+    /**
+     * Returns the hashes of the trigrams in a case-folded query.
+     */
+    public static long[] hashes(final CharSequence folded) {
+        final var hashes = new long[Math.max(0, folded.length() - 2)];
+        for (var i = 0; i < hashes.length; i++) {
+            hashes[i] = hash(folded.charAt(i), folded.charAt(i + 1), folded.charAt(i + 2));
+        }
+        return hashes;
+    }
+
+    public static char fold(final char c) {
+        return Character.toLowerCase(c);
+    }
+
+    private synchronized void insertUpdate(final int offset, final int length) {
+        try {
+            var position = offset;
+            while (position < offset + length) {
+                document.getText(position, offset + length - position, segment);
+                for (var i = 0; i < segment.count; i++) {
+                    add(fold(segment.array[segment.offset + i]));
+                }
+                position += segment.count;
+            }
+        } catch (final BadLocationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void add(final char c) {
+        if ((end & (BLOCK_SIZE - 1)) == 0 || count == 0) {
+            addBlock(end >> BLOCK_SHIFT);
+        }
+        final var filter = filterOffset((end - 2) >> BLOCK_SHIFT);
+        if (filter >= 0) {
+            set(filter, hash(beforePrevious, previous, c));
+        }
+        beforePrevious = previous;
+        previous = c;
+        end++;
+    }
+
+    private void addBlock(final long block) {
+        if (count == 0) {
+            firstBlock = block;
+        } else if (block < firstBlock + count) {
+            return;
+        }
+        if (count == capacity()) {
+            final var grown = new long[filters.length << 1];
+            final var tail = (capacity() - head) * FILTER_LONGS;
+            System.arraycopy(filters, head * FILTER_LONGS, grown, 0, tail);
+            System.arraycopy(filters, 0, grown, tail, head * FILTER_LONGS);
+            filters = grown;
+            head = 0;
+        }
+        final var filter = ((head + count) & (capacity() - 1)) * FILTER_LONGS;
+        Arrays.fill(filters, filter, filter + FILTER_LONGS, 0);
+        count++;
+    }
+
+    private int capacity() {
+        return filters.length / FILTER_LONGS;
+    }
+
+    private int filterOffset(final long block) {
+        if (block < firstBlock || block >= firstBlock + count) {
+            return -1;
+        }
+        return (int) ((head + block - firstBlock) & (capacity() - 1)) * FILTER_LONGS;
+    }
+
+    private boolean contains(final long block, final long hash) {
+        final var filter = filterOffset(block);
+        final var first = (int) hash & FILTER_MASK;
+        final var second = (int) (hash >>> 32) & FILTER_MASK;
+        return (filters[filter + (first >>> 6)] & 1L << first) != 0
+                && (filters[filter + (second >>> 6)] & 1L << second) != 0;
+    }
+
+    private void set(final int filter, final long hash) {
+        final var first = (int) hash & FILTER_MASK;
+        final var second = (int) (hash >>> 32) & FILTER_MASK;
+        filters[filter + (first >>> 6)] |= 1L << first;
+        filters[filter + (second >>> 6)] |= 1L << second;
+    }
+
+    private static long hash(final char first, final char second, final char third) {
+        final var trigram = (long) first << 32 | (long) second << 16 | third;
+        final var mixed = trigram * 0x9e3779b97f4a7c15L;
+        return mixed ^ mixed >>> 29;
+    }
+
+}
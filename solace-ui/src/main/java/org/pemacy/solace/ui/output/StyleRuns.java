@@ -0,0 +1,123 @@
+package org.pemacy.solace.ui.output;
+
+/**
+ * Run-length encoded styles for a stream of text. Each run is a start offset and a packed
+ * {@link org.pemacy.solace.Style} held in parallel primitive arrays, and consecutive text in the same style
+ * extends the last run instead of adding one. Offsets are absolute over everything ever appended, so
+ * dropping a prefix only moves the head of the ring.
+ */
+public class StyleRuns {
+
+    private long[] starts = new long[16];
+    private int[] styles = new int[16];
+    private int head;
+    private int size;
+    private long end;
+
+    public void append(final int length, final int style) {
+        if (length <= 0) {
+            return;
+        }
+        if (size == 0 || style(size - 1) != style) {
+            if (size == starts.length) {
+                grow();
+            }
+            final var index = (head + size) & (starts.length - 1);
+            starts[index] = end;
+            styles[index] = style;
+            size++;
+        }
+        end += length;
+    }
+
+    /**
+     * Appends the runs of another instance, whose offsets are taken to be relative to the end of this one.
+     */
+    public void append(final StyleRuns runs) {
+        for (var i = 0; i < runs.size; i++) {
+            append((int) (runs.end(i) - runs.start(i)), runs.style(i));
+        }
+    }
+
+    /**
+     * Drops all runs that end at or before the given absolute offset.
+     */
+    public void trim(final long offset) {
+        while (size > 1 && start(1) <= offset) {
+            head = (head + 1) & (starts.length - 1);
+            size--;
+        }
+        if (size == 1 && end <= offset) {
+            size = 0;
+        }
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+        end = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long end() {
+        return end;
+    }
+
+    public long start(final int run) {
+        return starts[(head + run) & (starts.length - 1)];
+    }
+
+    public long end(final int run) {
+        return run == size - 1 ? end : start(run + 1);
+    }
+
+    public int style(final int run) {
+        return styles[(head + run) & (styles.length - 1)];
+    }
+
+    /**
+     * Returns the index of the run containing the given absolute offset, or {@code -1} if there is none.
+     */
+    public int indexOf(final long offset) {
+        if (size == 0 || offset < start(0) || offset >= end) {
+            return -1;
+        }
+        var low = 0;
+        var high = size - 1;
+        while (low < high) {
+            final var middle = (low + high + 1) >>> 1;
+            if (start(middle) <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    public int styleAt(final long offset) {
+        final var run = indexOf(offset);
+        return run < 0 ? 0 : style(run);
+    }
+
+    private void grow() {
+        final var grownStarts = new long[starts.length << 1];
+        final var grownStyles = new int[styles.length << 1];
+        final var tail = starts.length - head;
+        System.arraycopy(starts, head, grownStarts, 0, tail);
+        System.arraycopy(starts, 0, grownStarts, tail, head);
+        System.arraycopy(styles, head, grownStyles, 0, tail);
+        System.arraycopy(styles, 0, grownStyles, tail, head);
+        starts = grownStarts;
+        styles = grownStyles;
+        head = 0;
+    }
+
+}
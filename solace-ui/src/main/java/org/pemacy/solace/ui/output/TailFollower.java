@@ -0,0 +1,85 @@
+package org.pemacy.solace.ui.output;
+
+import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+/**
+ * Keeps a scroll pane at the end of its content while the user is at the end, and leaves it alone once
+ * they scroll away. It reacts to changes of the vertical scroll bar's range, which happen once per layout
+ * of the grown content rather than once per insert, and it resumes following as soon as the user scrolls
+ * back to the bottom.
+ */
+public class TailFollower implements ChangeListener {
+
+    private static final int BOTTOM_TOLERANCE = 4;
+
+    private final BoundedRangeModel model;
+    private boolean following = true;
+    private boolean scrolling;
+    private boolean adjusting;
+    private int value;
+    private int extent;
+    private int maximum;
+
+    private TailFollower(final BoundedRangeModel model) {
+        this.model = model;
+        this.value = model.getValue();
+        this.extent = model.getExtent();
+        this.maximum = model.getMaximum();
+    }
+
+    /**
+     * Starts following the end of the content of the given scroll pane.
+     */
+    public static TailFollower attach(final JScrollPane scrollPane) {
+        final var follower = new TailFollower(scrollPane.getVerticalScrollBar().getModel());
+        follower.model.addChangeListener(follower);
+        return follower;
+    }
+
+    public boolean isFollowing() {
+        return following;
+    }
+
+    /**
+     * Starts or stops following the end of the content. Starting scrolls to the end right away.
+     */
+    public void setFollowing(final boolean following) {
+        this.following = following;
+        if (following) {
+            scrollToEnd();
+        }
+    }
+
+    @Override
+    public void stateChanged(final ChangeEvent event) {
+        if (scrolling) {
+            return;
+        }
+        if (model.getMaximum() != maximum || model.getExtent() != extent) {
+            maximum = model.getMaximum();
+            extent = model.getExtent();
+            if (following) {
+                scrollToEnd();
+            }
+        } else if (model.getValue() != value || model.getValueIsAdjusting() != adjusting) {
+            // While the thumb is dragged, output must not pull it away from the user
+            following = !model.getValueIsAdjusting()
+                    && model.getValue() + model.getExtent() >= model.getMaximum() - BOTTOM_TOLERANCE;
+        }
+        value = model.getValue();
+        adjusting = model.getValueIsAdjusting();
+    }
+
+    private void scrollToEnd() {
+        scrolling = true;
+        try {
+            model.setValue(model.getMaximum() - model.getExtent());
+        } finally {
+            scrolling = false;
+        }
+        value = model.getValue();
+    }
+
+}
@@ -0,0 +1,50 @@
+package org.pemacy.solace.ui.output;
+
+import org.pemacy.solace.Style;
+import org.pemacy.solace.Writer;
+
+/**
+ * A headless output area that tells its terminal window when there is something new to draw.
+ */
+public class TerminalOutputArea extends HeadlessOutputArea {
+
+    private volatile Runnable changeListener = () -> {
+    };
+
+    public TerminalOutputArea(final Scrollback scrollback) {
+        super(scrollback);
+    }
+
+    public void setChangeListener(final Runnable changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    @Override
+    public Writer<OutputArea> print(final Object content) {
+        super.print(content);
+        changeListener.run();
+        return this;
+    }
+
+    @Override
+    public Writer<OutputArea> print(final char[] content, final int offset, final int length) {
+        super.print(content, offset, length);
+        changeListener.run();
+        return this;
+    }
+
+    @Override
+    public Writer<OutputArea> print(final Style style, final Object content) {
+        super.print(style, content);
+        changeListener.run();
+        return this;
+    }
+
+    @Override
+    public OutputArea clear() {
+        super.clear();
+        changeListener.run();
+        return this;
+    }
+
+}
@@ -0,0 +1,30 @@
+package org.pemacy.solace.ui.output;
+
+import javax.swing.text.Segment;
+
+/**
+ * Append-only character storage behind an {@link OutputDocument}. Offsets are absolute over everything
+ * ever appended, and a prefix can be discarded to release the memory it used.
+ */
+public interface TextStorage {
+
+    void append(String text);
+
+    /**
+     * Releases the text before the given absolute offset. It must not be read afterwards.
+     */
+    void discard(long offset);
+
+    /**
+     * Points the segment at the text between the given absolute offsets. The segment may share the
+     * storage's own array, and may hold less than asked for if it allows a partial return.
+     */
+    void getText(long from, long to, Segment segment);
+
+    void getChars(long from, long to, char[] destination, int offset);
+
+    static TextStorage of(final Scrollback scrollback) {
+        return scrollback.offHeap() ? new OffHeapTextStorage() : new HeapTextStorage();
+    }
+
+}
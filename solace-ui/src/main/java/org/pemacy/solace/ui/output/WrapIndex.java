@@ -0,0 +1,106 @@
+package org.pemacy.solace.ui.output;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches where logical lines wrap into rows, per column width. Wrap points are only computed for lines that
+ * are asked for, typically the ones in the viewport, so changing the width costs nothing until the new
+ * width is painted. A few recent widths are kept so that resizing back and forth does not recompute.
+ * <p>
+ * Lines wrap after the blanks that follow a word, so a row never starts with the blanks it was broken at.
+ */
+public class WrapIndex {
+
+    private static final int[] NO_WRAPS = new int[0];
+    private static final int MAX_WIDTHS = 4;
+
+    private final int tabSize;
+    private final int linesPerWidth;
+    private final Map<Integer, Map<Long, int[]>> widths = new LinkedHashMap<>(MAX_WIDTHS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Integer, Map<Long, int[]>> eldest) {
+            return size() > MAX_WIDTHS;
+        }
+    };
+
+    private long computedLines;
+
+    public WrapIndex(final int tabSize, final int linesPerWidth) {
+        this.tabSize = tabSize;
+        this.linesPerWidth = linesPerWidth;
+    }
+
+    /**
+     * Returns the offsets, relative to the start of the line, at which each row after the first begins.
+     */
+    public int[] wraps(final long line, final int columns, final char[] text, final int offset, final int length) {
+        final var lines = widths.computeIfAbsent(columns, key -> new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, int[]> eldest) {
+                return size() > linesPerWidth;
+            }
+        });
+        var wraps = lines.get(line);
+        if (wraps == null) {
+            wraps = compute(text, offset, length, columns);
+            lines.put(line, wraps);
+            computedLines++;
+        }
+        return wraps;
+    }
+
+    public void invalidate(final long line) {
+        for (final var lines : widths.values()) {
+            lines.remove(line);
+        }
+    }
+
+    public void clear() {
+        widths.clear();
+    }
+
+    public long getComputedLines() {
+        return computedLines;
+    }
+
+    int[] compute(final char[] text, final int offset, final int length, final int columns) {
+        int[] wraps = NO_WRAPS;
+        var count = 0;
+        var rowStart = offset;
+        var breakAt = -1;
+        var column = 0;
+        for (var i = offset; i < offset + length; i++) {
+            final var c = text[i];
+            final var blank = c == ' ' || c == '\t';
+            var width = c == '\t' ? tabSize - column % tabSize : 1;
+            // Blanks at a break hang past the end of the row rather than starting the next one
+            while (column + width > columns && i > rowStart && !blank) {
+                rowStart = breakAt > rowStart ? breakAt : i;
+                if (count == wraps.length) {
+                    final var grown = new int[Math.max(4, count << 1)];
+                    System.arraycopy(wraps, 0, grown, 0, count);
+                    wraps = grown;
+                }
+                wraps[count++] = rowStart - offset;
+                breakAt = -1;
+                column = 0;
+                for (var j = rowStart; j < i; j++) {
+                    column += text[j] == '\t' ? tabSize - column % tabSize : 1;
+                }
+                width = c == '\t' ? tabSize - column % tabSize : 1;
+            }
+            column += width;
+            if (blank) {
+                breakAt = i + 1;
+            }
+        }
+        if (count == wraps.length) {
+            return wraps;
+        }
+        final var trimmed = new int[count];
+        System.arraycopy(wraps, 0, trimmed, 0, count);
+        return trimmed;
+    }
+
+}
@@ -0,0 +1,53 @@
+package org.pemacy.solace.ui.window;
+
+import org.pemacy.solace.ui.input.HeadlessInputArea;
+import org.pemacy.solace.ui.output.HeadlessOutputArea;
+
+public class HeadlessWindow implements Window {
+
+    private final HeadlessOutputArea outputArea;
+    private final HeadlessInputArea inputArea;
+    private volatile String title;
+    private volatile boolean visible;
+
+    public HeadlessWindow(final HeadlessOutputArea outputArea, final HeadlessInputArea inputArea) {
+        this.outputArea = outputArea;
+        this.inputArea = inputArea;
+    }
+
+    @Override
+    public Window centerOnScreen() {
+        return this;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    @Override
+    public Window setTitle(final String title) {
+        this.title = title;
+        return this;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    @Override
+    public Window setVisible(final boolean visible) {
+        this.visible = visible;
+        return this;
+    }
+
+    @Override
+    public HeadlessOutputArea getOutputArea() {
+        return outputArea;
+    }
+
+    @Override
+    public HeadlessInputArea getInputArea() {
+        return inputArea;
+    }
+
+}
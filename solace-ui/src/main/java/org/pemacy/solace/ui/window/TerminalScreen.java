@@ -0,0 +1,189 @@
+package org.pemacy.solace.ui.window;
+
+import org.pemacy.solace.Style;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A double-buffered grid of character cells for an ANSI/VT terminal. A frame is drawn into the back
+ * buffer and {@link #flush} writes only the cells that differ from what is already on the terminal, so
+ * the bytes written per frame are proportional to what changed. Each cell also holds a packed
+ * {@link Style}, and SGR sequences are only written where the style changes along the way.
+ */
+public class TerminalScreen {
+
+    private static final String CSI = "\u001b[";
+    private static final int MAX_REWRITE_GAP = 4;
+
+    private final int columns;
+    private final int rows;
+    private final char[] front;
+    private final char[] back;
+    private final int[] frontStyles;
+    private final int[] backStyles;
+    private final StringBuilder frame = new StringBuilder();
+    private boolean invalidated = true;
+    private int currentStyle;
+
+    private long framesWritten;
+    private long bytesWritten;
+
+    public TerminalScreen(final int columns, final int rows) {
+        if (columns < 1 || rows < 1) {
+            throw new IllegalArgumentException("Invalid screen size: " + columns + "x" + rows);
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.front = new char[columns * rows];
+        this.back = new char[columns * rows];
+        this.frontStyles = new int[columns * rows];
+        this.backStyles = new int[columns * rows];
+        Arrays.fill(back, ' ');
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public void clear() {
+        Arrays.fill(back, ' ');
+        Arrays.fill(backStyles, 0);
+    }
+
+    /**
+     * Draws text into the back buffer starting at the given cell, clipped to the row.
+     *
+     * @return the column after the last cell drawn
+     */
+    public int print(final int row, final int column, final CharSequence text, final int from, final int to) {
+        return print(row, column, text, from, to, 0);
+    }
+
+    /**
+     * Draws text in the given packed {@link Style} into the back buffer starting at the given cell, clipped
+     * to the row.
+     *
+     * @return the column after the last cell drawn
+     */
+    public int print(final int row, final int column, final CharSequence text, final int from, final int to,
+                     final int style) {
+        if (row < 0 || row >= rows) {
+            return column;
+        }
+        var cell = column;
+        for (var i = from; i < to && cell < columns; i++, cell++) {
+            final var c = text.charAt(i);
+            back[row * columns + cell] = c < ' ' || c == 0x7f ? ' ' : c;
+            backStyles[row * columns + cell] = style;
+        }
+        return cell;
+    }
+
+    /**
+     * Forgets what is on the terminal so that the next flush redraws every cell.
+     */
+    public void invalidate() {
+        invalidated = true;
+    }
+
+    public void flush(final OutputStream out, final int cursorRow, final int cursorColumn) throws IOException {
+        frame.setLength(0);
+        if (invalidated) {
+            frame.append(CSI).append("0m").append(CSI).append("H").append(CSI).append("2J");
+            Arrays.fill(front, ' ');
+            Arrays.fill(frontStyles, 0);
+            currentStyle = 0;
+            invalidated = false;
+        }
+
+        var cursor = -1;
+        for (var row = 0; row < rows; row++) {
+            var column = 0;
+            while (column < columns) {
+                final var index = row * columns + column;
+                if (front[index] == back[index] && frontStyles[index] == backStyles[index]) {
+                    column++;
+                    continue;
+                }
+                if (cursor < 0 || cursor > index || index - cursor > MAX_REWRITE_GAP || cursor / columns != row) {
+                    moveTo(row, column);
+                } else {
+                    append(cursor, index);
+                }
+                var end = index;
+                while (end < (row + 1) * columns && (front[end] != back[end] || frontStyles[end] != backStyles[end])) {
+                    end++;
+                }
+                append(index, end);
+                System.arraycopy(back, index, front, index, end - index);
+                System.arraycopy(backStyles, index, frontStyles, index, end - index);
+                cursor = end;
+                column = end - row * columns;
+            }
+        }
+        if (currentStyle != 0) {
+            frame.append(CSI).append("0m");
+            currentStyle = 0;
+        }
+        moveTo(cursorRow, cursorColumn);
+
+        final var bytes = frame.toString().getBytes(StandardCharsets.UTF_8);
+        out.write(bytes);
+        out.flush();
+        framesWritten++;
+        bytesWritten += bytes.length;
+    }
+
+    public long getFramesWritten() {
+        return framesWritten;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private void append(final int from, final int to) {
+        for (var index = from; index < to; index++) {
+            if (backStyles[index] != currentStyle) {
+                selectGraphicRendition(backStyles[index]);
+            }
+            frame.append(back[index]);
+        }
+    }
+
+    private void selectGraphicRendition(final int style) {
+        frame.append(CSI).append('0');
+        if (Style.bold(style)) {
+            frame.append(";1");
+        }
+        if (Style.underline(style)) {
+            frame.append(";4");
+        }
+        final var foreground = Style.foreground(style);
+        if (foreground != null) {
+            frame.append(';').append(colorCode(foreground.ordinal(), 30, 90));
+        }
+        final var background = Style.background(style);
+        if (background != null) {
+            frame.append(';').append(colorCode(background.ordinal(), 40, 100));
+        }
+        frame.append('m');
+        currentStyle = style;
+    }
+
+    private static int colorCode(final int color, final int normal, final int bright) {
+        return color < 8 ? normal + color : bright + color - 8;
+    }
+
+    private void moveTo(final int row, final int column) {
+        frame.append(CSI).append(row + 1).append(';').append(column + 1).append('H');
+    }
+
+}
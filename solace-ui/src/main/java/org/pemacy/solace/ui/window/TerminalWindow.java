@@ -0,0 +1,206 @@
+package org.pemacy.solace.ui.window;
+
+import org.pemacy.solace.ui.input.TerminalInputArea;
+import org.pemacy.solace.ui.output.StyleRuns;
+import org.pemacy.solace.ui.output.TerminalOutputArea;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A window drawn on an ANSI/VT terminal: a title row, the tail of the output and an input prompt on the
+ * last row. Changes are rendered at most once per frame through a {@link TerminalScreen}. A frame that
+ * fails to render is reported to the renderer thread's uncaught exception handler, and the next change is
+ * rendered as usual.
+ */
+public class TerminalWindow implements Window {
+
+    private static final String PROMPT = "> ";
+    private static final int TAB_SIZE = 8;
+
+    private final TerminalOutputArea outputArea;
+    private final TerminalInputArea inputArea;
+    private final TerminalScreen screen;
+    private final OutputStream out;
+    private final long frameNanos;
+    private final StringBuilder row = new StringBuilder();
+    private final StyleRuns tailStyles = new StyleRuns();
+    private int[] rowStyles = new int[256];
+
+    private ScheduledExecutorService renderer;
+    private volatile boolean dirty = true;
+    private volatile String title = "";
+
+    public TerminalWindow(final TerminalOutputArea outputArea, final TerminalInputArea inputArea,
+                          final OutputStream out, final int columns, final int rows, final int framesPerSecond) {
+        this.outputArea = outputArea;
+        this.inputArea = inputArea;
+        this.screen = new TerminalScreen(columns, rows);
+        this.out = out;
+        this.frameNanos = 1_000_000_000L / framesPerSecond;
+
+        outputArea.setChangeListener(() -> dirty = true);
+        inputArea.addLineListener(line -> {
+            synchronized (screen) {
+                screen.invalidate();
+            }
+            dirty = true;
+        });
+    }
+
+    @Override
+    public Window centerOnScreen() {
+        return this;
+    }
+
+    @Override
+    public Window setTitle(final String title) {
+        this.title = title == null ? "" : title;
+        write("\u001b]0;" + this.title + "\u0007");
+        dirty = true;
+        return this;
+    }
+
+    @Override
+    public synchronized Window setVisible(final boolean visible) {
+        if (visible && renderer == null) {
+            write("\u001b[?1049h");
+            synchronized (screen) {
+                screen.invalidate();
+            }
+            dirty = true;
+            renderer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final var thread = new Thread(runnable, "solace-terminal-renderer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            renderer.scheduleAtFixedRate(this::render, 0, frameNanos, TimeUnit.NANOSECONDS);
+            inputArea.start();
+        } else if (!visible && renderer != null) {
+            renderer.shutdown();
+            renderer = null;
+            write("\u001b[?1049l");
+        }
+        return this;
+    }
+
+    @Override
+    public TerminalOutputArea getOutputArea() {
+        return outputArea;
+    }
+
+    @Override
+    public TerminalInputArea getInputArea() {
+        return inputArea;
+    }
+
+    public TerminalScreen getScreen() {
+        return screen;
+    }
+
+    private void render() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        // An exception escaping a periodic task would cancel every later frame
+        try {
+            draw();
+        } catch (final IOException | RuntimeException e) {
+            final var thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    private void draw() throws IOException {
+        synchronized (screen) {
+            final var columns = screen.getColumns();
+            final var rows = screen.getRows();
+            screen.clear();
+            screen.print(0, 0, title, 0, title.length());
+
+            final var outputRows = rows - 2;
+            final var tail = outputArea.getTail(outputRows, tailStyles);
+            final var wrapped = new int[outputRows * 2];
+            var count = 0;
+            var lineStart = 0;
+            while (lineStart <= tail.length() && !tail.isEmpty()) {
+                var lineEnd = tail.indexOf('\n', lineStart);
+                if (lineEnd < 0) {
+                    lineEnd = tail.length();
+                }
+                for (var rowStart = lineStart; ; rowStart += columns) {
+                    wrapped[(count % outputRows) * 2] = rowStart;
+                    wrapped[(count % outputRows) * 2 + 1] = Math.min(rowStart + columns, lineEnd);
+                    count++;
+                    if (rowStart + columns >= lineEnd) {
+                        break;
+                    }
+                }
+                lineStart = lineEnd + 1;
+            }
+            final var shown = Math.min(count, outputRows);
+            for (var i = 0; i < shown; i++) {
+                final var slot = (count - shown + i) % outputRows;
+                expandTabs(tail, wrapped[slot * 2], wrapped[slot * 2 + 1]);
+                var column = 0;
+                for (var from = 0; from < row.length(); ) {
+                    var to = from + 1;
+                    while (to < row.length() && rowStyles[to] == rowStyles[from]) {
+                        to++;
+                    }
+                    column = screen.print(1 + i, column, row, from, to, rowStyles[from]);
+                    from = to;
+                }
+            }
+
+            screen.print(rows - 1, 0, PROMPT, 0, PROMPT.length());
+            screen.flush(out, rows - 1, PROMPT.length());
+        }
+    }
+
+    private void expandTabs(final String text, final int from, final int to) {
+        row.setLength(0);
+        var run = tailStyles.indexOf(from);
+        for (var i = from; i < to; i++) {
+            while (run >= 0 && i >= tailStyles.end(run)) {
+                run = run + 1 < tailStyles.size() ? run + 1 : -1;
+            }
+            final var style = run < 0 ? 0 : tailStyles.style(run);
+            final var c = text.charAt(i);
+            if (c == '\t') {
+                do {
+                    appendCell(' ', style);
+                } while (row.length() % TAB_SIZE != 0);
+            } else {
+                appendCell(c, style);
+            }
+        }
+    }
+
+    private void appendCell(final char c, final int style) {
+        if (row.length() == rowStyles.length) {
+            rowStyles = Arrays.copyOf(rowStyles, rowStyles.length << 1);
+        }
+        rowStyles[row.length()] = style;
+        row.append(c);
+    }
+
+    private void write(final String sequence) {
+        try {
+            synchronized (screen) {
+                out.write(sequence.getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+package org.pemacy.solace.ui.window;
+
+import org.pemacy.solace.ui.input.InputArea;
+import org.pemacy.solace.ui.output.OutputArea;
+
+public interface Window {
+
+    Window centerOnScreen();
+
+    Window setTitle(final String title);
+
+    Window setVisible(final boolean visible);
+
+    OutputArea getOutputArea();
+
+    InputArea getInputArea();
+
+    /**
+     * Closes the window for good and releases what it holds. By default the window is only hidden.
+     */
+    default void dispose() {
+        setVisible(false);
+    }
+
+}
@@ -0,0 +1,43 @@
+package org.pemacy.solace.ui.input;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompletionTrieTest {
+
+    @Test
+    void splitsEdgesAndListsWordsInOrder() {
+        final var trie = new CompletionTrie().addAll(List.of("help", "hello", "he", "world", "helm"));
+        assertEquals(5, trie.size());
+        assertFalse(trie.add("hello"));
+        assertTrue(trie.contains("he"));
+        assertFalse(trie.contains("hel"));
+        assertEquals(List.of("he", "hello", "helm", "help"), trie.complete("he", 10));
+        assertEquals(List.of("hello", "helm", "help"), trie.complete("hel", 10));
+        assertEquals(List.of("world"), trie.complete("wo", 10));
+        assertEquals(List.of(), trie.complete("x", 10));
+    }
+
+    @Test
+    void stopsAtTheLimit() {
+        final var trie = new CompletionTrie().addAll(List.of("abc1", "abc2", "abd"));
+        assertEquals(List.of("abc1", "abc2"), trie.complete("a", 2));
+        assertEquals(List.of(), trie.complete("a", 0));
+    }
+
+    @Test
+    void findsTheCommonPrefixOfEveryMatch() {
+        final var trie = new CompletionTrie().addAll(List.of("abc1", "abc2", "abd", "status"));
+        assertEquals("ab", trie.commonPrefix("a"));
+        assertEquals("abc", trie.commonPrefix("abc"));
+        assertEquals("status", trie.commonPrefix("s"));
+        assertNull(trie.commonPrefix("x"));
+    }
+
+}
@@ -0,0 +1,70 @@
+package org.pemacy.solace.ui.input;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pemacy.solace.io.HistoryStore;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InputHistoryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void stepsBackOverEachCommandOnce() throws InterruptedException {
+        try (final var store = new HistoryStore(directory.resolve("history"))) {
+            store.add("make").add("ls").add("make");
+            final var history = new InputHistory(store);
+            history.add("git status");
+            history.add("git status");
+            history.add(" ");
+
+            assertEquals("git status", history.previous("typed"));
+            assertEquals("make", history.previous("git status"));
+            assertEquals("ls", history.previous("make"));
+            assertNull(history.previous("ls"));
+            assertEquals("make", history.next());
+            assertEquals("git status", history.next());
+            assertEquals("typed", history.next());
+            assertNull(history.next());
+
+            awaitSize(store, 4);
+        }
+    }
+
+    @Test
+    void searchesLinesBeforeAndAfterTheyAreWritten() throws InterruptedException {
+        try (final var store = new HistoryStore(directory.resolve("history"))) {
+            store.add("make test");
+            final var history = new InputHistory(store);
+            history.add("git commit");
+
+            assertNull(history.searchOlder("typed"));
+            assertTrue(history.isSearching());
+            assertEquals("git commit", history.searchAppend('t'));
+            assertEquals("make test", history.searchOlder(""));
+            assertNull(history.searchOlder(""));
+            assertTrue(history.isFailing());
+            assertEquals("typed", history.cancelSearch());
+            assertFalse(history.isSearching());
+
+            awaitSize(store, 2);
+            assertNull(history.searchOlder(""));
+            assertEquals("git commit", history.searchAppend('g'));
+        }
+    }
+
+    private static void awaitSize(final HistoryStore store, final int size) throws InterruptedException {
+        while (store.size() < size) {
+            Thread.sleep(1);
+        }
+        assertEquals(size, store.size());
+    }
+
+}
@@ -0,0 +1,81 @@
+package org.pemacy.solace.ui.input;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LineQueueTest {
+
+    @Test
+    void handsLinesToReadersInOrder() throws Exception {
+        final var queue = new LineQueue();
+        final var waiting = queue.readLineAsync();
+        assertFalse(waiting.isDone());
+        queue.accept("one");
+        queue.accept("two");
+        assertEquals("one", waiting.get(1, TimeUnit.SECONDS));
+        assertEquals("two", queue.readLine());
+    }
+
+    @Test
+    void dropsTheOldestUnreadLinesBeyondTheCapacity() throws InterruptedException {
+        final var queue = new LineQueue(2);
+        queue.accept("one");
+        queue.accept("two");
+        queue.accept("three");
+        assertEquals(1, queue.getDroppedLines());
+        assertEquals("two", queue.readLine());
+        assertEquals("three", queue.readLine());
+    }
+
+    @Test
+    void givesNullAfterTheLastLineOnceEnded() throws Exception {
+        final var queue = new LineQueue();
+        final var waiting = queue.readLineAsync();
+        queue.accept("last");
+        queue.end();
+        assertEquals("last", waiting.get(1, TimeUnit.SECONDS));
+        assertNull(queue.readLine());
+        assertNull(queue.readLineAsync().get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void wakesWaitingReadersWhenEnded() throws Exception {
+        final var queue = new LineQueue();
+        final var first = queue.readLineAsync();
+        final var second = queue.readLineAsync();
+        queue.end();
+        assertNull(first.get(1, TimeUnit.SECONDS));
+        assertNull(second.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void keepsOnlyTheLatestLinesForTheFirstListener() {
+        final var input = new HeadlessInputArea();
+        for (var i = 0; i < LineQueue.DEFAULT_CAPACITY + 10; i++) {
+            input.submit("line " + i);
+        }
+        final var delivered = new ArrayList<String>();
+        input.addLineListener(delivered::add);
+        assertEquals(LineQueue.DEFAULT_CAPACITY, delivered.size());
+        assertEquals("line 10", delivered.get(0));
+    }
+
+    @Test
+    void endsTerminalInputAtTheEndOfTheStream() throws InterruptedException {
+        final var input = new TerminalInputArea(new ByteArrayInputStream(
+                "first\nsecond\n".getBytes(StandardCharsets.UTF_8)));
+        input.start();
+        assertEquals("first", input.readLine());
+        assertEquals("second", input.readLine());
+        assertNull(input.readLine());
+    }
+
+}
@@ -0,0 +1,49 @@
+package org.pemacy.solace.ui.input;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrieCompleterTest {
+
+    private final CompletionTrie trie = new CompletionTrie().addAll(List.of("abc1", "abc2", "abd", "status"));
+
+    @Test
+    void completesTheWordBeforeTheCaret() {
+        final var completion = new TrieCompleter(trie).complete("show st more", 7).join();
+        assertEquals(5, completion.start());
+        assertEquals(7, completion.end());
+        assertEquals(List.of("status"), completion.candidates());
+        assertEquals("status", completion.commonPrefix());
+        assertFalse(completion.truncated());
+    }
+
+    @Test
+    void givesTheCommonPrefixOfEveryMatchWhenTruncated() {
+        final var completion = new TrieCompleter(trie, 2).complete("a", 1).join();
+        assertEquals(List.of("abc1", "abc2"), completion.candidates());
+        assertTrue(completion.truncated());
+        assertEquals("ab", completion.commonPrefix());
+    }
+
+    @Test
+    void isNotTruncatedWhenEveryMatchFits() {
+        final var completion = new TrieCompleter(trie, 3).complete("a", 1).join();
+        assertEquals(List.of("abc1", "abc2", "abd"), completion.candidates());
+        assertFalse(completion.truncated());
+        assertEquals("ab", completion.commonPrefix());
+    }
+
+    @Test
+    void marksASingleCandidateOfSeveralMatchesAsTruncated() {
+        final var completion = new TrieCompleter(trie, 1).complete("abc", 3).join();
+        assertEquals(List.of("abc1"), completion.candidates());
+        assertTrue(completion.truncated());
+        assertEquals("abc", completion.commonPrefix());
+    }
+
+}
@@ -0,0 +1,155 @@
+package org.pemacy.solace.ui.output;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OutputDocumentTest {
+
+    private final OutputDocument document = new OutputDocument();
+    private final PlainDocument expected = new PlainDocument();
+
+    @Test
+    void hasTheLinesOfAPlainDocument() throws BadLocationException {
+        assertSameElements();
+        append("first line\nsecond");
+        append(" line\n\nlast");
+        assertSameElements();
+        append("\n");
+        assertSameElements();
+
+        assertEquals(5, document.getLineCount());
+        assertEquals(2, document.getLineOfOffset(document.getLineStartOffset(2)));
+        assertEquals(document.getLength(), document.getLineEndOffset(4));
+    }
+
+    @Test
+    void shiftsOffsetsWhenAPrefixIsRemoved() throws BadLocationException {
+        append("one\ntwo\nthree\nfour");
+        final var position = document.createPosition(8);
+
+        remove(6);
+        assertSameElements();
+        assertEquals(1, document.getFirstLineNumber());
+        assertEquals(6, document.toAbsolute(0));
+        assertEquals("o\nthree\nfour", document.getText(0, document.getLength()));
+        assertEquals(2, position.getOffset());
+
+        remove(document.getLength());
+        assertSameElements();
+        assertEquals(3, document.getFirstLineNumber());
+        assertEquals(0, position.getOffset());
+        assertEquals(0, document.getLength());
+    }
+
+    @Test
+    void keepsLineStartsAcrossManyAppendsAndRemovals() throws BadLocationException {
+        for (var i = 0; i < 1_000; i++) {
+            append("line " + i + "\n");
+            if (i % 7 == 6) {
+                remove(document.getLineStartOffset(5));
+            }
+        }
+        assertSameElements();
+        assertEquals(1_000, document.getFirstLineNumber() + document.getLineCount() - 1);
+        final var last = document.getLineCount() - 2;
+        assertEquals("line 999\n", document.getText(document.getLineStartOffset(last),
+                document.getLineEndOffset(last) - document.getLineStartOffset(last)));
+    }
+
+    @Test
+    void reportsTheLinesAddedAndRemoved() throws BadLocationException {
+        final var events = new ArrayList<DocumentEvent>();
+        document.addDocumentListener(new DocumentListener() {
+
+            @Override
+            public void insertUpdate(final DocumentEvent event) {
+                events.add(event);
+            }
+
+            @Override
+            public void removeUpdate(final DocumentEvent event) {
+                events.add(event);
+            }
+
+            @Override
+            public void changedUpdate(final DocumentEvent event) {
+                events.add(event);
+            }
+
+        });
+        document.insertString(0, "a", null);
+        document.insertString(1, "b\nc\n", null);
+        document.remove(0, 3);
+
+        assertEquals(List.of(DocumentEvent.EventType.INSERT, DocumentEvent.EventType.INSERT,
+                DocumentEvent.EventType.REMOVE), events.stream().map(DocumentEvent::getType).toList());
+        final var root = document.getDefaultRootElement();
+        assertNull(events.get(0).getChange(root));
+        final var added = events.get(1).getChange(root);
+        assertEquals(0, added.getIndex());
+        assertEquals(1, added.getChildrenRemoved().length);
+        assertEquals(3, added.getChildrenAdded().length);
+        final var removed = events.get(2).getChange(root);
+        assertEquals(1, removed.getChildrenRemoved().length);
+        assertEquals(0, removed.getChildrenAdded().length);
+    }
+
+    @Test
+    void rejectsAnythingButAppendsAndPrefixRemovals() throws BadLocationException {
+        append("text");
+        assertThrows(BadLocationException.class, () -> document.insertString(0, "x", null));
+        assertThrows(BadLocationException.class, () -> document.remove(1, 1));
+        assertThrows(BadLocationException.class, () -> document.remove(0, 5));
+        assertThrows(BadLocationException.class, () -> document.getText(2, 4));
+    }
+
+    @Test
+    void endsWithTheImpliedNewline() throws BadLocationException {
+        append("ab");
+        assertEquals("ab\n", document.getText(0, 3));
+        assertEquals(expected.getText(0, 3), document.getText(0, 3));
+    }
+
+    private void append(final String text) throws BadLocationException {
+        document.insertString(document.getLength(), text, null);
+        expected.insertString(expected.getLength(), text, null);
+    }
+
+    private void remove(final int length) throws BadLocationException {
+        document.remove(0, length);
+        expected.remove(0, length);
+    }
+
+    private void assertSameElements() throws BadLocationException {
+        assertSameText(expected, document);
+        final var expectedRoot = expected.getDefaultRootElement();
+        final var root = document.getDefaultRootElement();
+        assertEquals(expectedRoot.getElementCount(), root.getElementCount());
+        assertEquals(expectedRoot.getEndOffset(), root.getEndOffset());
+        for (var i = 0; i < root.getElementCount(); i++) {
+            final var line = root.getElement(i);
+            assertEquals(expectedRoot.getElement(i).getStartOffset(), line.getStartOffset());
+            assertEquals(expectedRoot.getElement(i).getEndOffset(), line.getEndOffset());
+            assertEquals(i, root.getElementIndex(line.getStartOffset()));
+            assertEquals(i, root.getElementIndex(line.getEndOffset() - 1));
+        }
+    }
+
+    private static void assertSameText(final Document expected, final Document actual)
+            throws BadLocationException {
+        assertEquals(expected.getLength(), actual.getLength());
+        assertEquals(expected.getText(0, expected.getLength()), actual.getText(0, actual.getLength()));
+    }
+
+}
@@ -0,0 +1,63 @@
+package org.pemacy.solace.ui.output;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class WrapIndexTest {
+
+    private final WrapIndex index = new WrapIndex(8, 16);
+
+    @Test
+    void keepsALineThatFits() {
+        assertArrayEquals(new int[0], wraps("hello world", 11));
+    }
+
+    @Test
+    void swallowsTheBlanksAtABreak() {
+        assertArrayEquals(new int[] {6}, wraps("hello world", 5));
+        assertArrayEquals(new int[] {8}, wraps("hello   world", 5));
+        assertArrayEquals(new int[] {6, 12}, wraps("hello world again", 7));
+    }
+
+    @Test
+    void breaksAfterTheLastBlankThatFits() {
+        assertArrayEquals(new int[] {6}, wraps("a bcd efgh", 8));
+        assertArrayEquals(new int[] {3, 6}, wraps("ab cd ef", 4));
+    }
+
+    @Test
+    void splitsAWordLongerThanARow() {
+        assertArrayEquals(new int[] {3, 6}, wraps("abcdefgh", 3));
+        assertArrayEquals(new int[] {3, 6}, wraps("ab cdefg", 3));
+    }
+
+    @Test
+    void countsTabsToTheNextStop() {
+        assertArrayEquals(new int[] {2}, wraps("a\tb", 4));
+        assertArrayEquals(new int[0], wraps("a\tb", 9));
+        assertArrayEquals(new int[] {2}, wraps("a\tbcdefgh", 9));
+    }
+
+    @Test
+    void computesEachLineOncePerWidth() {
+        final var text = "hello world".toCharArray();
+        final var wraps = index.wraps(7, 5, text, 0, text.length);
+        assertSame(wraps, index.wraps(7, 5, text, 0, text.length));
+        assertEquals(1, index.getComputedLines());
+
+        index.wraps(7, 6, text, 0, text.length);
+        assertEquals(2, index.getComputedLines());
+        index.invalidate(7);
+        index.wraps(7, 5, text, 0, text.length);
+        assertEquals(3, index.getComputedLines());
+    }
+
+    private int[] wraps(final String line, final int columns) {
+        final var text = ("--" + line).toCharArray();
+        return index.compute(text, 2, line.length(), columns);
+    }
+
+}